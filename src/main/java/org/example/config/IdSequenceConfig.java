@@ -0,0 +1,29 @@
+package org.example.config;
+
+import org.example.model.PooledSequenceGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Runs the {@link IdSequenceIncrementAligner} before the entity manager factory is built: Hibernate compares the
+ * sequence increments with the allocation size while it boots and refuses to start on a mismatch.
+ */
+@Configuration
+public class IdSequenceConfig {
+
+    @Bean
+    public IdSequenceIncrementAligner idSequenceIncrementAligner(DataSource dataSource,
+            @Value("${spring.jpa.properties." + PooledSequenceGenerator.ALLOCATION_SIZE_SETTING + ":"
+                    + PooledSequenceGenerator.DEFAULT_ALLOCATION_SIZE + "}") int allocationSize) {
+        return new IdSequenceIncrementAligner(dataSource, allocationSize);
+    }
+
+    @Bean
+    public static EntityManagerFactoryDependsOnPostProcessor entityManagerFactoryDependsOnIdSequences() {
+        return new EntityManagerFactoryDependsOnPostProcessor(IdSequenceIncrementAligner.class);
+    }
+}
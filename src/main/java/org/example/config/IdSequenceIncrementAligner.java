@@ -0,0 +1,57 @@
+package org.example.config;
+
+import org.springframework.beans.factory.InitializingBean;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sets the increment of the existing id sequences to {@code transport.id.allocation-size} before Hibernate starts,
+ * so that one setting drives both the pooled generators and the database. Sequences that do not exist yet are
+ * created by Hibernate's schema update with the same increment. Lowering the size while other instances still run
+ * lets them hand out overlapping id blocks, so stop them first.
+ */
+public class IdSequenceIncrementAligner implements InitializingBean {
+    // The sequences behind the @PooledSequence ids.
+    static final List<String> SEQUENCES = List.of("companies_seq", "clients_seq", "vehicles_seq", "employees_seq", "transports_seq");
+
+    private final DataSource dataSource;
+    private final int allocationSize;
+
+    public IdSequenceIncrementAligner(DataSource dataSource, int allocationSize) {
+        this.dataSource = dataSource;
+        this.allocationSize = allocationSize;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            Map<String, Long> increments = new HashMap<>();
+            try (PreparedStatement select = connection.prepareStatement(
+                    "SELECT sequence_name, increment FROM information_schema.sequences WHERE sequence_schema = ?")) {
+                select.setString(1, connection.getSchema());
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        increments.put(rs.getString(1).toLowerCase(), Long.parseLong(rs.getString(2)));
+                    }
+                }
+            }
+            for (String sequence : SEQUENCES) {
+                Long increment = increments.get(sequence);
+                if (increment != null && increment != allocationSize) {
+                    try (Statement alter = connection.createStatement()) {
+                        alter.execute("ALTER SEQUENCE " + sequence + " INCREMENT BY " + allocationSize);
+                    }
+                    System.out.println("Id sequence " + sequence + " increment changed from " + increment + " to " + allocationSize);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the single datasource with one that routes read-only transactions to the configured read replicas
+ * (see {@link ReplicaRoutingDataSource}). The primary pool keeps the spring.datasource.* settings, and the JPA
+ * transaction manager keeps replica reads out of the second-level cache (see {@link ReplicaReadJpaTransactionManager}).
+ */
+@Configuration
+@ConditionalOnProperty(name = "transport.read-replicas.enabled", havingValue = "true")
+public class ReadReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             DataSourceProperties properties,
+                                                             @Value("${transport.read-replicas.urls}") List<String> urls,
+                                                             @Value("${transport.read-replicas.username:}") String username,
+                                                             @Value("${transport.read-replicas.password:}") String password,
+                                                             @Value("${transport.read-replicas.pool-size:5}") int poolSize,
+                                                             @Value("${transport.read-replicas.retry-after-ms:30000}") long retryAfterMillis) {
+        List<DataSource> replicas = new ArrayList<>();
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(properties.determineDriverClassName())
+                    .url(url.trim())
+                    .username(username.isEmpty() ? properties.determineUsername() : username)
+                    .password(password.isEmpty() ? properties.determinePassword() : password)
+                    .build();
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setMaximumPoolSize(poolSize);
+            replica.setReadOnly(true);
+            // Fail fast so a dead replica costs a read one short wait before it falls back to the primary
+            replica.setConnectionTimeout(2000);
+            replica.setInitializationFailTimeout(-1);
+            replicas.add(replica);
+        }
+        if (replicas.isEmpty()) {
+            throw new IllegalStateException("transport.read-replicas.enabled is set but transport.read-replicas.urls is empty");
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, retryAfterMillis);
+    }
+
+    // The routing decision needs the transaction's read-only flag, which is only set after the transaction begins
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    // Takes the place of Spring Boot's JPA transaction manager, with the same customizers applied
+    @Bean
+    public PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory,
+                                                         ObjectProvider<TransactionManagerCustomizers> customizers) {
+        ReplicaReadJpaTransactionManager transactionManager = new ReplicaReadJpaTransactionManager();
+        transactionManager.setEntityManagerFactory(entityManagerFactory);
+        customizers.ifAvailable(c -> c.customize(transactionManager));
+        return transactionManager;
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.config;
+
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps rows read from a replica out of the second-level cache, so a lagging replica cannot put stale values in the
+ * shared regions that write transactions on the primary read from. Read-only transactions, which
+ * {@link ReplicaRoutingDataSource} sends to a replica, look entities up in the cache but never store them (store
+ * mode BYPASS), and run queries with {@link CacheMode#IGNORE}: Hibernate stores a query result after a cache miss
+ * even in {@link CacheMode#GET}, so cached queries skip the query cache altogether.
+ */
+public class ReplicaReadJpaTransactionManager extends JpaTransactionManager {
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        super.doBegin(transaction, definition);
+        EntityManager entityManager = currentEntityManager();
+        if (definition.isReadOnly() && entityManager != null) {
+            entityManager.setProperty(SpecHints.HINT_SPEC_CACHE_STORE_MODE, CacheStoreMode.BYPASS);
+            entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+        }
+    }
+
+    // The entity manager can outlive the transaction (when it was bound before it), so the mode is reset here.
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        EntityManager entityManager = currentEntityManager();
+        if (entityManager != null && entityManager.unwrap(Session.class).getCacheMode() == CacheMode.IGNORE) {
+            entityManager.setProperty(SpecHints.HINT_SPEC_CACHE_STORE_MODE, CacheStoreMode.USE);
+            entityManager.unwrap(Session.class).setCacheMode(CacheMode.NORMAL);
+        }
+        super.doCleanupAfterCompletion(transaction);
+    }
+
+    private EntityManager currentEntityManager() {
+        EntityManagerHolder holder = (EntityManagerHolder) TransactionSynchronizationManager.getResource(obtainEntityManagerFactory());
+        return holder != null && holder.getEntityManager().isOpen() ? holder.getEntityManager() : null;
+    }
+}
@@ -0,0 +1,118 @@
+package org.example.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Sends connections of read-only transactions to the replicas in round-robin order and everything else to the
+ * primary. A replica that fails to hand out a connection is skipped for {@code retryAfterMillis} and the read moves
+ * on to the next one; while no replica is available, read-only transactions use the primary. Needs a
+ * LazyConnectionDataSourceProxy in front, so the connection is fetched once the transaction's read-only flag is set.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    static final String PRIMARY = "primary";
+
+    private final List<DataSource> replicas;
+    private final List<String> replicaKeys;
+    private final AtomicLongArray downUntil;
+    private final AtomicInteger next = new AtomicInteger();
+    private final long retryAfterMillis;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, long retryAfterMillis) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        this.replicas = List.copyOf(replicas);
+        this.replicaKeys = new ArrayList<>(replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            String key = "replica-" + (i + 1);
+            targets.put(key, replicas.get(i));
+            replicaKeys.add(key);
+        }
+        this.downUntil = new AtomicLongArray(replicas.size());
+        this.retryAfterMillis = retryAfterMillis;
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        int index = nextAvailableReplica();
+        return index < 0 ? PRIMARY : replicaKeys.get(index);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connect(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connect(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    // Closes the replica pools; the primary pool is a bean of its own.
+    public void close() throws Exception {
+        for (DataSource replica : replicas) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private interface Connector {
+        Connection connect(DataSource dataSource) throws SQLException;
+    }
+
+    private Connection connect(Connector connector) throws SQLException {
+        // Each failed replica is marked down, so this tries every replica at most once before settling on the primary
+        for (int attempt = 0; attempt < replicaKeys.size(); attempt++) {
+            Object key = determineCurrentLookupKey();
+            if (PRIMARY.equals(key)) {
+                break;
+            }
+            try {
+                return connector.connect(getResolvedDataSources().get(key));
+            } catch (SQLException e) {
+                markDown(replicaKeys.indexOf(key));
+            }
+        }
+        return connector.connect(primary());
+    }
+
+    private int nextAvailableReplica() {
+        long now = System.currentTimeMillis();
+        int size = replicaKeys.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            int index = (start + i) % size;
+            if (downUntil.get(index) <= now) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private void markDown(int index) {
+        downUntil.set(index, System.currentTimeMillis() + retryAfterMillis);
+        System.err.println("Read replica " + replicaKeys.get(index) + " unavailable; skipping it for "
+                + retryAfterMillis + " ms");
+    }
+
+    private DataSource primary() {
+        return getResolvedDataSources().get(PRIMARY);
+    }
+}
@@ -0,0 +1,12 @@
+package org.example.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Turns on {@code @Scheduled} methods (transport partition maintenance).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,10 @@
+package org.example.dto;
+
+import java.math.BigDecimal;
+
+// Cursor for listings ordered by an amount (revenue, salary) descending; amount may be null for NULLS LAST orderings.
+public record AmountCursor(
+        BigDecimal amount,
+        Integer id
+) {
+}
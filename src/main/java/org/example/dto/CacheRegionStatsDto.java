@@ -0,0 +1,13 @@
+package org.example.dto;
+
+public record CacheRegionStatsDto(
+        String region,
+        long hits,
+        long misses,
+        long puts
+) {
+    public double hitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+}
@@ -0,0 +1,10 @@
+package org.example.dto;
+
+import java.time.LocalDateTime;
+
+public record DestinationCursor(
+        String endLocation,
+        LocalDateTime startDate,
+        Integer id
+) {
+}
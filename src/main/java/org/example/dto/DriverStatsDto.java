@@ -0,0 +1,25 @@
+package org.example.dto;
+
+import java.math.BigDecimal;
+
+public record DriverStatsDto(
+        Integer driverId,
+        String firstName,
+        String lastName,
+        long transportCount,
+        BigDecimal revenue,
+        long paidCount,
+        BigDecimal paidRevenue
+) {
+    public String fullName() {
+        return (firstName == null ? "" : firstName) + " " + (lastName == null ? "" : lastName);
+    }
+
+    public long unpaidCount() {
+        return transportCount - paidCount;
+    }
+
+    public BigDecimal unpaidRevenue() {
+        return revenue.subtract(paidRevenue);
+    }
+}
@@ -0,0 +1,38 @@
+package org.example.dto;
+
+import org.example.exception.ValidationException;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.function.Function;
+
+// One page of a keyset (seek) listing; next is the cursor to pass for the following page, null on the last page.
+public record KeysetPage<T, C>(
+        List<T> items,
+        C next
+) {
+    // One row more than the page, so of() can tell whether another page follows.
+    public static Limit fetchLimit(int size) {
+        if (size < 1) {
+            throw new ValidationException("Page size must be at least 1");
+        }
+        return Limit.of(size + 1);
+    }
+
+    // rows must be fetched with fetchLimit(size); the extra row only tells whether another page exists.
+    public static <T, C> KeysetPage<T, C> of(List<T> rows, int size, Function<T, C> cursorOf) {
+        if (rows.size() <= size) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, size);
+        return new KeysetPage<>(items, cursorOf.apply(items.get(size - 1)));
+    }
+
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    public <R> KeysetPage<R, C> map(Function<T, R> mapper) {
+        return new KeysetPage<>(items.stream().map(mapper).toList(), next);
+    }
+}
@@ -0,0 +1,7 @@
+package org.example.dto;
+
+public record NameCursor(
+        String name,
+        Integer id
+) {
+}
@@ -0,0 +1,18 @@
+package org.example.dto;
+
+import java.time.Duration;
+
+// matched: unpaid transport with the paid amount, now marked paid; alreadyPaid: the transport was paid before
+// (or earlier in the same file); unmatched: no transport with that ID, or a different price; invalid: unparseable.
+public record PaymentReconciliationResult(
+        long matched,
+        long alreadyPaid,
+        long unmatched,
+        long invalid,
+        long chunks,
+        Duration elapsed
+) {
+    public long total() {
+        return matched + alreadyPaid + unmatched + invalid;
+    }
+}
@@ -0,0 +1,9 @@
+package org.example.dto;
+
+import java.time.LocalDateTime;
+
+public record StartDateCursor(
+        LocalDateTime startDate,
+        Integer id
+) {
+}
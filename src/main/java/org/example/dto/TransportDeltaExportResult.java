@@ -0,0 +1,10 @@
+package org.example.dto;
+
+import java.time.LocalDateTime;
+
+public record TransportDeltaExportResult(
+        long exported,
+        LocalDateTime since,
+        LocalDateTime watermark
+) {
+}
@@ -0,0 +1,24 @@
+package org.example.dto;
+
+import org.example.util.TransportRejectReason;
+
+import java.time.Duration;
+import java.util.Map;
+
+public record TransportImportResult(
+        long imported,
+        long chunks,
+        long resumedAfter,
+        Map<TransportRejectReason, Long> rejected,
+        Duration elapsed,
+        boolean revenuePending
+) {
+    public long rejectedTotal() {
+        return rejected.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    public double rowsPerSecond() {
+        long millis = elapsed.toMillis();
+        return millis == 0 ? imported : imported * 1000.0 / millis;
+    }
+}
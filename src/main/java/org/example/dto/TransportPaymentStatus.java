@@ -0,0 +1,10 @@
+package org.example.dto;
+
+import java.math.BigDecimal;
+
+public record TransportPaymentStatus(
+        Integer id,
+        BigDecimal price,
+        Boolean isPaid
+) {
+}
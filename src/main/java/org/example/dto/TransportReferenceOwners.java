@@ -0,0 +1,10 @@
+package org.example.dto;
+
+// Owning company of each row a transport references; a null owner means the row does not exist.
+public record TransportReferenceOwners(
+        Integer companyId,
+        Integer clientCompanyId,
+        Integer vehicleCompanyId,
+        Integer driverCompanyId
+) {
+}
@@ -3,6 +3,7 @@ package org.example.mapper;
 import org.example.dto.TransportDto;
 import org.example.dto.TransportUpsertDto;
 import org.example.model.Transport;
+import org.example.util.TransportFileRow;
 
 public final class TransportMapper {
     private TransportMapper() {}
@@ -46,5 +47,26 @@ public final class TransportMapper {
         target.setIsPaid(dto.isPaid());
         // NOTE: associations (company/client/vehicle/driver) are set in service (needs repositories).
     }
-}
 
+    public static Transport fromFileRow(TransportFileRow row) {
+        if (row == null) return null;
+        Transport transport = new Transport();
+        applyFileRow(transport, row);
+        return transport;
+    }
+
+    public static void applyFileRow(Transport target, TransportFileRow row) {
+        if (target == null || row == null) return;
+        target.setStartLocation(row.startLocation());
+        target.setEndLocation(row.endLocation());
+        target.setStartDate(row.startDate());
+        target.setEndDate(row.endDate());
+        target.setTransportType(row.transportType());
+        target.setCargoDescription(row.cargoDescription());
+        target.setCargoWeight(row.cargoWeight());
+        target.setPassengerCount(row.passengerCount());
+        target.setPrice(row.price());
+        target.setIsPaid(row.isPaid());
+        // NOTE: associations are resolved in service from the row IDs.
+    }
+}
@@ -8,19 +8,29 @@ import lombok.Data;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "clients")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "clients")
+@Table(name = "clients", indexes = {
+        @Index(name = "idx_clients_company_name", columnList = "company_id, name")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @ToString(exclude = {"company"})
 public class Client {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence(name = "clients_seq")
     private Integer id;
+
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
     
     @NotNull(message = "Company ID is required")
     @ManyToOne(fetch = FetchType.LAZY)
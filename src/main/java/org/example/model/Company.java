@@ -13,16 +13,23 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
+// Not second-level cached: the background revenue recompute is a bulk UPDATE, which evicts the whole region.
 @Entity
-@Table(name = "companies")
+@Table(name = "companies", indexes = {
+        @Index(name = "idx_companies_name", columnList = "name")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @ToString(exclude = {"clients", "vehicles", "employees", "transports"})
 public class Company {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence(name = "companies_seq")
     private Integer id;
+
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
     
     @NotBlank(message = "Company name is required")
     @Column(nullable = false)
@@ -38,7 +45,8 @@ public class Company {
     @Column(length = 255)
     private String email;
     
-    @Column(precision = 15, scale = 2)
+    // Changed only by CompanyRepository.recomputeRevenue; company edits never write it back.
+    @Column(precision = 15, scale = 2, updatable = false)
     private BigDecimal revenue;
     
     @Column(name = "created_at")
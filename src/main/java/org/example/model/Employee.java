@@ -8,6 +8,8 @@ import lombok.Data;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.Hibernate;
 
 import java.math.BigDecimal;
@@ -15,7 +17,13 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "employees")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "employees")
+// Salary ordering (DESC NULLS LAST) is indexed in db/schema-postgresql.sql.
+@Table(name = "employees", indexes = {
+        @Index(name = "idx_employees_company_name", columnList = "company_id, last_name, first_name"),
+        @Index(name = "idx_employees_qualification_name", columnList = "qualification, last_name, first_name")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -26,8 +34,12 @@ public class Employee {
     }
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence(name = "employees_seq")
     private Integer id;
+
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
     
     @NotNull(message = "Company ID is required")
     @ManyToOne(fetch = FetchType.LAZY)
@@ -13,7 +13,17 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transports")
+// driver_id is indexed in db/schema-postgresql.sql as a covering index for the driver stats.
+// When the table is partitioned by start_date (db/partition-transports-by-start-date.sql), the same indexes exist per
+// partition and ux_transports_import_key is unique on (import_key, start_date).
+@Table(name = "transports", indexes = {
+        @Index(name = "idx_transports_company_start_date", columnList = "company_id, start_date"),
+        @Index(name = "idx_transports_client_id", columnList = "client_id"),
+        @Index(name = "idx_transports_vehicle_id", columnList = "vehicle_id"),
+        @Index(name = "idx_transports_end_location_start_date", columnList = "end_location, start_date DESC"),
+        @Index(name = "idx_transports_updated_at", columnList = "updated_at"),
+        @Index(name = "ux_transports_import_key", columnList = "import_key", unique = true)
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -24,8 +34,12 @@ public class Transport {
     }
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence(name = "transports_seq")
     private Integer id;
+
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
     
     @NotNull(message = "Company ID is required")
     @ManyToOne(fetch = FetchType.LAZY)
@@ -83,14 +97,27 @@ public class Transport {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Key of the file row this transport was imported from, so re-imports update instead of duplicating.
+    @Column(name = "import_key", length = 80)
+    private String importKey;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
         if (isPaid == null) {
             isPaid = false;
         }
     }
 
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
     {
         this.isPaid = false;
     }
@@ -7,13 +7,19 @@ import lombok.Data;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.Hibernate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "vehicles")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "vehicles")
+@Table(name = "vehicles", indexes = {
+        @Index(name = "idx_vehicles_company_license_plate", columnList = "company_id, license_plate")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -24,8 +30,12 @@ public class Vehicle {
     }
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence(name = "vehicles_seq")
     private Integer id;
+
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
     
     @NotNull(message = "Company ID is required")
     @ManyToOne(fetch = FetchType.LAZY)
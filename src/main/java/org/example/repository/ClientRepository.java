@@ -1,17 +1,50 @@
 package org.example.repository;
 
+import jakarta.persistence.QueryHint;
+import org.example.dto.ClientDto;
 import org.example.model.Client;
 import org.example.model.Company;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
 public interface ClientRepository extends JpaRepository<Client, Integer> {
+    String DTO_SELECT = "SELECT new org.example.dto.ClientDto(c.id, c.company.id, c.name, c.contactPerson, c.phone, " +
+            "c.email, c.address) FROM Client c";
+
     List<Client> findByCompanyOrderByName(Company company);
     
-    List<Client> findByCompanyId(Integer companyId);
+    // Cached in the second-level query cache; any write to the table invalidates the cached results.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "reference-queries")
+    })
+    @Query("SELECT c FROM Client c WHERE c.company.id = :companyId")
+    List<Client> findByCompanyId(@Param("companyId") Integer companyId);
+
+    @Query(DTO_SELECT)
+    List<ClientDto> findAllDtos();
+
+    @Query(DTO_SELECT + " WHERE c.company.id = :companyId")
+    List<ClientDto> findDtosByCompanyId(@Param("companyId") Integer companyId);
+
+    List<Client> findByIdGreaterThanOrderById(Integer id, Limit limit);
+
+    // Company pages seek along idx_clients_company_name.
+    @Query("SELECT c FROM Client c WHERE c.company.id = :companyId ORDER BY c.name, c.id")
+    List<Client> findByCompanyIdOrderByNameAscIdAsc(@Param("companyId") Integer companyId, Limit limit);
+
+    @Query("SELECT c FROM Client c WHERE c.company.id = :companyId " +
+            "AND (c.name > :name OR (c.name = :name AND c.id > :id)) ORDER BY c.name, c.id")
+    List<Client> findNextByCompanyIdAndName(@Param("companyId") Integer companyId, @Param("name") String name,
+                                            @Param("id") Integer id, Limit limit);
 }
 
 
@@ -1,16 +1,59 @@
 package org.example.repository;
 
+import org.example.dto.CompanyDto;
 import org.example.model.Company;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface CompanyRepository extends JpaRepository<Company, Integer> {
+    String DTO_SELECT = "SELECT new org.example.dto.CompanyDto(c.id, c.name, c.address, c.phone, c.email, c.revenue) " +
+            "FROM Company c";
+
     List<Company> findAllByOrderByName();
 
     List<Company> findAllByOrderByRevenueDesc();
+
+    // DTO reads build the records in the query, so no entities are attached to the persistence context.
+    @Query(DTO_SELECT)
+    List<CompanyDto> findAllDtos();
+
+    @Query(DTO_SELECT + " ORDER BY c.name")
+    List<CompanyDto> findAllDtosOrderByName();
+
+    @Query(DTO_SELECT + " ORDER BY c.revenue DESC")
+    List<CompanyDto> findAllDtosOrderByRevenueDesc();
+
+    // Keyset pages: each query seeks past the previous page's last (sort key, id) instead of using OFFSET.
+    List<Company> findByIdGreaterThanOrderById(Integer id, Limit limit);
+
+    List<Company> findByOrderByNameAscIdAsc(Limit limit);
+
+    @Query("SELECT c FROM Company c WHERE c.name > :name OR (c.name = :name AND c.id > :id) ORDER BY c.name, c.id")
+    List<Company> findNextByName(@Param("name") String name, @Param("id") Integer id, Limit limit);
+
+    List<Company> findByOrderByRevenueDescIdAsc(Limit limit);
+
+    @Query("SELECT c FROM Company c WHERE c.revenue < :revenue OR (c.revenue = :revenue AND c.id > :id) " +
+            "ORDER BY c.revenue DESC, c.id")
+    List<Company> findNextByRevenue(@Param("revenue") BigDecimal revenue, @Param("id") Integer id, Limit limit);
+
+    // Sets each revenue from the transports themselves, so however many writes were coalesced, the result is exact.
+    @Modifying
+    @Query("UPDATE Company c SET c.revenue = (SELECT COALESCE(SUM(t.price), 0) FROM Transport t WHERE t.company = c) " +
+            "WHERE c.id IN :companyIds")
+    int recomputeRevenue(@Param("companyIds") Collection<Integer> companyIds);
+
+    @Query("SELECT c.revenue FROM Company c WHERE c.id = :companyId")
+    BigDecimal findRevenueById(@Param("companyId") Integer companyId);
 }
 
 
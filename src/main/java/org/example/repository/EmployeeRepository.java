@@ -1,18 +1,34 @@
 package org.example.repository;
 
+import jakarta.persistence.QueryHint;
+import org.example.dto.EmployeeDto;
 import org.example.model.Company;
 import org.example.model.Employee;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 @Repository
 public interface EmployeeRepository extends JpaRepository<Employee, Integer> {
+    String DTO_SELECT = "SELECT new org.example.dto.EmployeeDto(e.id, e.company.id, e.firstName, e.lastName, e.phone, " +
+            "e.email, e.position, e.qualification, e.salary, e.hireDate) FROM Employee e";
+
     List<Employee> findByCompanyOrderByLastNameAscFirstNameAsc(Company company);
     
-    List<Employee> findByCompanyId(Integer companyId);
+    // Cached in the second-level query cache; any write to the table invalidates the cached results.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "reference-queries")
+    })
+    @Query("SELECT e FROM Employee e WHERE e.company.id = :companyId")
+    List<Employee> findByCompanyId(@Param("companyId") Integer companyId);
     
     @Query("SELECT e FROM Employee e ORDER BY e.qualification NULLS LAST, e.lastName, e.firstName")
     List<Employee> findAllOrderByQualification();
@@ -21,6 +37,38 @@ public interface EmployeeRepository extends JpaRepository<Employee, Integer> {
     List<Employee> findAllOrderBySalaryDesc();
     
     List<Employee> findByQualificationContainingIgnoreCase(String qualification);
+
+    @Query(DTO_SELECT)
+    List<EmployeeDto> findAllDtos();
+
+    @Query(DTO_SELECT + " WHERE e.company.id = :companyId")
+    List<EmployeeDto> findDtosByCompanyId(@Param("companyId") Integer companyId);
+
+    @Query(DTO_SELECT + " ORDER BY e.qualification NULLS LAST, e.lastName, e.firstName")
+    List<EmployeeDto> findAllDtosOrderByQualification();
+
+    @Query(DTO_SELECT + " ORDER BY e.salary DESC NULLS LAST")
+    List<EmployeeDto> findAllDtosOrderBySalaryDesc();
+
+    @Query(DTO_SELECT + " WHERE e.qualification ILIKE %:qualification%")
+    List<EmployeeDto> findDtosByQualificationContaining(@Param("qualification") String qualification);
+
+    List<Employee> findByIdGreaterThanOrderById(Integer id, Limit limit);
+
+    @Query("SELECT e FROM Employee e WHERE e.company.id = :companyId AND e.id > :id ORDER BY e.id")
+    List<Employee> findByCompanyIdAndIdGreaterThanOrderById(@Param("companyId") Integer companyId,
+                                                            @Param("id") Integer id, Limit limit);
+
+    // Salary pages follow idx_employees_salary_desc_id; employees without a salary come last, in id order.
+    @Query("SELECT e FROM Employee e ORDER BY e.salary DESC NULLS LAST, e.id")
+    List<Employee> findFirstPageBySalaryDesc(Limit limit);
+
+    @Query("SELECT e FROM Employee e WHERE e.salary < :salary OR (e.salary = :salary AND e.id > :id) " +
+            "OR e.salary IS NULL ORDER BY e.salary DESC NULLS LAST, e.id")
+    List<Employee> findNextBySalaryDesc(@Param("salary") BigDecimal salary, @Param("id") Integer id, Limit limit);
+
+    @Query("SELECT e FROM Employee e WHERE e.salary IS NULL AND e.id > :id ORDER BY e.id")
+    List<Employee> findNextWithoutSalary(@Param("id") Integer id, Limit limit);
 }
 
 
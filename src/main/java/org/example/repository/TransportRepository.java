@@ -1,25 +1,47 @@
 package org.example.repository;
 
+import jakarta.persistence.QueryHint;
+import org.example.dto.DriverStatsDto;
+import org.example.dto.TransportDto;
+import org.example.dto.TransportPaymentStatus;
+import org.example.dto.TransportReferenceOwners;
 import org.example.model.Company;
 import org.example.model.Employee;
 import org.example.model.Transport;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TransportRepository extends JpaRepository<Transport, Integer> {
+    String EXPORT_FETCH_SIZE = "1000";
+    String DTO_SELECT = "SELECT new org.example.dto.TransportDto(t.id, t.company.id, t.client.id, v.id, d.id, " +
+            "t.startLocation, t.endLocation, t.startDate, t.endDate, t.transportType, t.cargoDescription, " +
+            "t.cargoWeight, t.passengerCount, t.price, t.isPaid) " +
+            "FROM Transport t LEFT JOIN t.vehicle v LEFT JOIN t.driver d";
+
     List<Transport> findByCompanyOrderByStartDateDesc(Company company);
     
-    List<Transport> findByCompanyId(Integer companyId);
+    // Spelled out: the derived query joins companies and filters on the joined id, which keeps H2 off the index.
+    @Query("SELECT t FROM Transport t WHERE t.company.id = :companyId")
+    List<Transport> findByCompanyId(@Param("companyId") Integer companyId);
     
     List<Transport> findByDriver(Employee driver);
     
-    List<Transport> findByDriverId(Integer driverId);
+    @Query("SELECT t FROM Transport t WHERE t.driver.id = :driverId")
+    List<Transport> findByDriverId(@Param("driverId") Integer driverId);
     
     @Query("SELECT t FROM Transport t WHERE t.endLocation ILIKE %:destination% ORDER BY t.startDate DESC")
     List<Transport> findByDestination(@Param("destination") String destination);
@@ -31,6 +53,147 @@ public interface TransportRepository extends JpaRepository<Transport, Integer> {
     List<Transport> findByCompanyIdAndDateRange(@Param("companyId") Integer companyId, 
                                                  @Param("startDate") LocalDateTime startDate, 
                                                  @Param("endDate") LocalDateTime endDate);
-}
 
+    // DTO reads build the records in the query, so no entities are attached to the persistence context.
+    @Query(DTO_SELECT)
+    List<TransportDto> findAllDtos();
+
+    @Query(DTO_SELECT + " WHERE t.company.id = :companyId")
+    List<TransportDto> findDtosByCompanyId(@Param("companyId") Integer companyId);
+
+    @Query(DTO_SELECT + " WHERE d.id = :driverId")
+    List<TransportDto> findDtosByDriverId(@Param("driverId") Integer driverId);
+
+    @Query(DTO_SELECT + " WHERE t.endLocation ILIKE %:destination% ORDER BY t.startDate DESC")
+    List<TransportDto> findDtosByDestination(@Param("destination") String destination);
+
+    @Query(DTO_SELECT + " ORDER BY t.endLocation, t.startDate DESC")
+    List<TransportDto> findAllDtosOrderByDestination();
+
+    // Substring searches, newest first. On Postgres the ILIKE predicates use the pg_trgm GIN indexes from
+    // db/schema-postgresql.sql; other databases run the same query without them. Terms must come with %, _ and \
+    // escaped by a backslash (TransportService does that), so they match literally.
+    @Query(DTO_SELECT + " WHERE t.startLocation ILIKE %:origin% ESCAPE '\\' ORDER BY t.startDate DESC, t.id DESC")
+    List<TransportDto> searchByOrigin(@Param("origin") String origin, Limit limit);
+
+    @Query(DTO_SELECT + " WHERE t.endLocation ILIKE %:destination% ESCAPE '\\' ORDER BY t.startDate DESC, t.id DESC")
+    List<TransportDto> searchByDestination(@Param("destination") String destination, Limit limit);
+
+    @Query(DTO_SELECT + " WHERE t.startLocation ILIKE %:origin% ESCAPE '\\' " +
+            "AND t.endLocation ILIKE %:destination% ESCAPE '\\' " +
+            "ORDER BY t.startDate DESC, t.id DESC")
+    List<TransportDto> searchByRoute(@Param("origin") String origin, @Param("destination") String destination,
+                                     Limit limit);
+
+    List<Transport> findByIdGreaterThanOrderById(Integer id, Limit limit);
+
+    // Company pages seek along idx_transports_company_start_date, newest first.
+    @Query("SELECT t FROM Transport t WHERE t.company.id = :companyId ORDER BY t.startDate DESC, t.id DESC")
+    List<Transport> findByCompanyIdOrderByStartDateDescIdDesc(@Param("companyId") Integer companyId, Limit limit);
+
+    @Query("SELECT t FROM Transport t WHERE t.company.id = :companyId " +
+            "AND (t.startDate < :startDate OR (t.startDate = :startDate AND t.id < :id)) " +
+            "ORDER BY t.startDate DESC, t.id DESC")
+    List<Transport> findNextByCompanyId(@Param("companyId") Integer companyId, @Param("startDate") LocalDateTime startDate,
+                                        @Param("id") Integer id, Limit limit);
+
+    // Destination pages seek along idx_transports_end_location_start_date.
+    @Query("SELECT t FROM Transport t ORDER BY t.endLocation, t.startDate DESC, t.id")
+    List<Transport> findFirstPageByDestination(Limit limit);
+
+    @Query("SELECT t FROM Transport t WHERE t.endLocation > :endLocation " +
+            "OR (t.endLocation = :endLocation AND (t.startDate < :startDate " +
+            "OR (t.startDate = :startDate AND t.id > :id))) " +
+            "ORDER BY t.endLocation, t.startDate DESC, t.id")
+    List<Transport> findNextByDestination(@Param("endLocation") String endLocation,
+                                          @Param("startDate") LocalDateTime startDate,
+                                          @Param("id") Integer id, Limit limit);
+
+    // Empty when the company does not exist; the other owners are null for ids that do not exist (or are null).
+    @Query("SELECT new org.example.dto.TransportReferenceOwners(c.id, " +
+            "(SELECT cl.company.id FROM Client cl WHERE cl.id = :clientId), " +
+            "(SELECT v.company.id FROM Vehicle v WHERE v.id = :vehicleId), " +
+            "(SELECT e.company.id FROM Employee e WHERE e.id = :driverId)) " +
+            "FROM Company c WHERE c.id = :companyId")
+    Optional<TransportReferenceOwners> findReferenceOwners(@Param("companyId") Integer companyId,
+                                                           @Param("clientId") Integer clientId,
+                                                           @Param("vehicleId") Integer vehicleId,
+                                                           @Param("driverId") Integer driverId);
+
+    List<Transport> findByImportKeyIn(Collection<String> importKeys);
 
+    long countByCompanyId(Integer companyId);
+
+    @Query("SELECT COALESCE(SUM(t.price), 0) FROM Transport t")
+    BigDecimal sumPrice();
+
+    @Query("SELECT COALESCE(SUM(t.price), 0) FROM Transport t WHERE t.company.id = :companyId")
+    BigDecimal sumPriceByCompanyId(@Param("companyId") Integer companyId);
+
+    @Query("SELECT COALESCE(SUM(t.price), 0) FROM Transport t WHERE t.company.id = :companyId AND t.startDate >= :startDate AND t.startDate <= :endDate")
+    BigDecimal sumPriceByCompanyIdAndDateRange(@Param("companyId") Integer companyId,
+                                               @Param("startDate") LocalDateTime startDate,
+                                               @Param("endDate") LocalDateTime endDate);
+
+    // One row per driver of the company, including drivers without transports.
+    @Query("SELECT new org.example.dto.DriverStatsDto(e.id, e.firstName, e.lastName, COUNT(t.id), " +
+            "COALESCE(SUM(t.price), 0), COUNT(CASE WHEN t.isPaid = true THEN 1 END), " +
+            "COALESCE(SUM(CASE WHEN t.isPaid = true THEN t.price END), 0)) " +
+            "FROM Employee e LEFT JOIN Transport t ON t.driver = e " +
+            "WHERE e.company.id = :companyId AND UPPER(e.position) = 'DRIVER' " +
+            "GROUP BY e.id, e.firstName, e.lastName " +
+            "ORDER BY COALESCE(SUM(t.price), 0) DESC, e.id")
+    List<DriverStatsDto> findDriverStatsByCompanyId(@Param("companyId") Integer companyId);
+
+    // Export streams project straight into DTOs so nothing is attached to the persistence context;
+    // the fetch size makes the driver use a server-side cursor instead of buffering the whole result.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(DTO_SELECT + " ORDER BY t.id")
+    Stream<TransportDto> streamAllForExport();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(DTO_SELECT + " WHERE t.company.id = :companyId ORDER BY t.id")
+    Stream<TransportDto> streamByCompanyIdForExport(@Param("companyId") Integer companyId);
+
+    @Query("SELECT MAX(t.updatedAt) FROM Transport t")
+    LocalDateTime findMaxUpdatedAt();
+
+    @Query("SELECT MAX(t.updatedAt) FROM Transport t WHERE t.company.id = :companyId")
+    LocalDateTime findMaxUpdatedAtByCompanyId(@Param("companyId") Integer companyId);
+
+    // Delta exports range-scan idx_transports_updated_at over (since, until].
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(DTO_SELECT + " WHERE t.updatedAt > :since AND t.updatedAt <= :until ORDER BY t.updatedAt, t.id")
+    Stream<TransportDto> streamUpdatedBetweenForExport(@Param("since") LocalDateTime since,
+                                                       @Param("until") LocalDateTime until);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(DTO_SELECT + " WHERE t.company.id = :companyId AND t.updatedAt > :since AND t.updatedAt <= :until " +
+            "ORDER BY t.updatedAt, t.id")
+    Stream<TransportDto> streamByCompanyIdUpdatedBetweenForExport(@Param("companyId") Integer companyId,
+                                                                  @Param("since") LocalDateTime since,
+                                                                  @Param("until") LocalDateTime until);
+
+    // Set-based payment marking: one statement however many transports match. Paid rows are left alone, so the
+    // returned count is the number of transports that went from unpaid to paid.
+    String MARK_PAID = "UPDATE Transport t SET t.isPaid = true, t.updatedAt = :updatedAt, t.version = t.version + 1 ";
+    String UNPAID = "(t.isPaid = false OR t.isPaid IS NULL)";
+
+    @Modifying
+    @Query(MARK_PAID + "WHERE t.id IN :ids AND " + UNPAID)
+    int markPaidByIdIn(@Param("ids") Collection<Integer> ids, @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Modifying
+    @Query(MARK_PAID + "WHERE t.client.id = :clientId AND " + UNPAID)
+    int markPaidByClientId(@Param("clientId") Integer clientId, @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Modifying
+    @Query(MARK_PAID + "WHERE t.company.id = :companyId AND t.startDate >= :startDate AND t.startDate <= :endDate AND " + UNPAID)
+    int markPaidByCompanyIdAndDateRange(@Param("companyId") Integer companyId,
+                                        @Param("startDate") LocalDateTime startDate,
+                                        @Param("endDate") LocalDateTime endDate,
+                                        @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Query("SELECT new org.example.dto.TransportPaymentStatus(t.id, t.price, t.isPaid) FROM Transport t WHERE t.id IN :ids")
+    List<TransportPaymentStatus> findPaymentStatusByIdIn(@Param("ids") Collection<Integer> ids);
+}
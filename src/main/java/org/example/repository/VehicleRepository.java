@@ -1,17 +1,45 @@
 package org.example.repository;
 
+import jakarta.persistence.QueryHint;
+import org.example.dto.VehicleDto;
 import org.example.model.Company;
 import org.example.model.Vehicle;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
 public interface VehicleRepository extends JpaRepository<Vehicle, Integer> {
+    String DTO_SELECT = "SELECT new org.example.dto.VehicleDto(v.id, v.company.id, v.licensePlate, v.vehicleType, " +
+            "v.brand, v.model, v.year, v.capacity) FROM Vehicle v";
+
     List<Vehicle> findByCompanyOrderByLicensePlate(Company company);
     
-    List<Vehicle> findByCompanyId(Integer companyId);
+    // Cached in the second-level query cache; any write to the table invalidates the cached results.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "reference-queries")
+    })
+    @Query("SELECT v FROM Vehicle v WHERE v.company.id = :companyId")
+    List<Vehicle> findByCompanyId(@Param("companyId") Integer companyId);
+
+    @Query(DTO_SELECT)
+    List<VehicleDto> findAllDtos();
+
+    @Query(DTO_SELECT + " WHERE v.company.id = :companyId")
+    List<VehicleDto> findDtosByCompanyId(@Param("companyId") Integer companyId);
+
+    List<Vehicle> findByIdGreaterThanOrderById(Integer id, Limit limit);
+
+    @Query("SELECT v FROM Vehicle v WHERE v.company.id = :companyId AND v.id > :id ORDER BY v.id")
+    List<Vehicle> findByCompanyIdAndIdGreaterThanOrderById(@Param("companyId") Integer companyId,
+                                                           @Param("id") Integer id, Limit limit);
 }
 
 
@@ -3,6 +3,8 @@ package org.example.service;
 import lombok.RequiredArgsConstructor;
 import org.example.dto.ClientDto;
 import org.example.dto.ClientUpsertDto;
+import org.example.dto.KeysetPage;
+import org.example.dto.NameCursor;
 import org.example.exception.ValidationException;
 import org.example.mapper.ClientMapper;
 import org.example.model.Client;
@@ -10,6 +12,7 @@ import org.example.model.Company;
 import org.example.repository.ClientRepository;
 import org.example.repository.CompanyRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.validation.ConstraintViolation;
@@ -24,6 +27,7 @@ public class ClientService {
     private final ClientRepository clientRepository;
     private final CompanyRepository companyRepository;
     private final Validator validator;
+    private final TransactionRetry transactionRetry;
 
     public Client createClient(Client client, Integer companyId) throws ValidationException {
         Company company = companyRepository.findById(companyId)
@@ -59,16 +63,43 @@ public class ClientService {
         return clientRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
     public List<ClientDto> getAllClientDtos() {
-        return getAllClients().stream().map(ClientMapper::toDto).toList();
+        return clientRepository.findAllDtos();
     }
 
     public List<Client> getClientsByCompanyId(Integer companyId) {
         return clientRepository.findByCompanyId(companyId);
     }
 
+    @Transactional(readOnly = true)
     public List<ClientDto> getClientDtosByCompanyId(Integer companyId) {
-        return getClientsByCompanyId(companyId).stream().map(ClientMapper::toDto).toList();
+        return clientRepository.findDtosByCompanyId(companyId);
+    }
+
+    // Page methods take the previous page's next cursor, or null for the first page.
+    public KeysetPage<Client, Integer> getClientPage(Integer afterId, int size) {
+        List<Client> rows = clientRepository.findByIdGreaterThanOrderById(afterId == null ? 0 : afterId,
+                KeysetPage.fetchLimit(size));
+        return KeysetPage.of(rows, size, Client::getId);
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetPage<ClientDto, Integer> getClientDtoPage(Integer afterId, int size) {
+        return getClientPage(afterId, size).map(ClientMapper::toDto);
+    }
+
+    public KeysetPage<Client, NameCursor> getClientPageByCompanyId(Integer companyId, NameCursor after, int size) {
+        List<Client> rows = after == null
+                ? clientRepository.findByCompanyIdOrderByNameAscIdAsc(companyId, KeysetPage.fetchLimit(size))
+                : clientRepository.findNextByCompanyIdAndName(companyId, after.name(), after.id(),
+                KeysetPage.fetchLimit(size));
+        return KeysetPage.of(rows, size, c -> new NameCursor(c.getName(), c.getId()));
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetPage<ClientDto, NameCursor> getClientDtoPageByCompanyId(Integer companyId, NameCursor after, int size) {
+        return getClientPageByCompanyId(companyId, after, size).map(ClientMapper::toDto);
     }
 
     public Client updateClient(Client client, Integer companyId) throws ValidationException {
@@ -85,6 +116,7 @@ public class ClientService {
         return clientRepository.save(client);
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public ClientDto updateClientDto(ClientUpsertDto dto) throws ValidationException {
         if (dto == null || dto.id() == null) {
             throw new ValidationException("Client ID is required for update");
@@ -92,13 +124,15 @@ public class ClientService {
         if (dto.companyId() == null) {
             throw new ValidationException("Company ID is required");
         }
-        Client client = getClientById(dto.id());
-        Company company = companyRepository.findById(dto.companyId())
-                .orElseThrow(() -> new ValidationException("Company with ID " + dto.companyId() + " does not exist"));
-        ClientMapper.applyUpsert(client, dto);
-        client.setCompany(company);
-        validate(client);
-        return ClientMapper.toDto(clientRepository.save(client));
+        return transactionRetry.execute(() -> {
+            Client client = getClientById(dto.id());
+            Company company = companyRepository.findById(dto.companyId())
+                    .orElseThrow(() -> new ValidationException("Company with ID " + dto.companyId() + " does not exist"));
+            ClientMapper.applyUpsert(client, dto);
+            client.setCompany(company);
+            validate(client);
+            return ClientMapper.toDto(clientRepository.save(client));
+        });
     }
 
     public void deleteClient(Integer id) {
@@ -0,0 +1,7 @@
+package org.example.service;
+
+import java.util.Set;
+
+// Published inside a write transaction; the recompute is queued only once that transaction commits.
+record CompanyRevenueChangedEvent(Set<Integer> companyIds) {
+}
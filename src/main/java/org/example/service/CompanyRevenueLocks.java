@@ -0,0 +1,104 @@
+package org.example.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-company locks for transactions that change a company's revenue, held until the transaction completes, so
+ * same-company writers queue in the JVM instead of on the company row. There is one lock per company (created on
+ * first use, dropped when unused), taken in ascending id order; a lock not acquired within the timeout fails with
+ * {@link CannotAcquireLockException}, which {@link TransactionRetry} retries.
+ */
+@Component
+public class CompanyRevenueLocks {
+    private final ConcurrentHashMap<Integer, Stripe> stripes = new ConcurrentHashMap<>();
+    private final long timeoutMillis;
+
+    public CompanyRevenueLocks(@Value("${transport.write.lock-timeout-ms:5000}") long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private int users;
+    }
+
+    // Locks the companies until the current transaction completes; ids the transaction already holds are skipped.
+    public void lockForTransaction(Collection<Integer> companyIds) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Company revenue locks need an active transaction");
+        }
+        Set<Integer> held = heldByTransaction();
+        for (Integer companyId : new TreeSet<>(companyIds)) {
+            if (held.add(companyId)) {
+                try {
+                    acquire(companyId);
+                } catch (RuntimeException e) {
+                    held.remove(companyId);
+                    throw e;
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<Integer> heldByTransaction() {
+        Set<Integer> held = (Set<Integer>) TransactionSynchronizationManager.getResource(this);
+        if (held == null) {
+            Set<Integer> locked = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, locked);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResource(CompanyRevenueLocks.this);
+                    locked.forEach(CompanyRevenueLocks.this::release);
+                }
+            });
+            held = locked;
+        }
+        return held;
+    }
+
+    private void acquire(Integer companyId) {
+        Stripe stripe = stripes.compute(companyId, (id, existing) -> {
+            Stripe s = existing == null ? new Stripe() : existing;
+            s.users++;
+            return s;
+        });
+        boolean locked = false;
+        try {
+            locked = stripe.lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!locked) {
+            unuse(companyId);
+            throw new CannotAcquireLockException("Timed out waiting for the revenue lock of company " + companyId);
+        }
+    }
+
+    private void release(Integer companyId) {
+        stripes.get(companyId).lock.unlock();
+        unuse(companyId);
+    }
+
+    // Whether a lock for the company is held or waited for; idle companies keep no entry.
+    boolean isTracked(Integer companyId) {
+        return stripes.containsKey(companyId);
+    }
+
+    private void unuse(Integer companyId) {
+        stripes.computeIfPresent(companyId, (id, stripe) -> --stripe.users == 0 ? null : stripe);
+    }
+}
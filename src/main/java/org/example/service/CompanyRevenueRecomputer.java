@@ -0,0 +1,131 @@
+package org.example.service;
+
+import jakarta.annotation.PreDestroy;
+import org.example.repository.CompanyRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Recomputes company revenue in the background after transport writes commit. Companies waiting for a recompute
+ * are kept in a set, so a burst of writes for one company (an import chunk, a run of edits) costs one recompute,
+ * and a single worker applies them in batches, each batch one UPDATE under the companies' revenue locks. A batch
+ * that fails stays queued and the worker tries again after a backoff that doubles up to a maximum, so a transient
+ * database error delays a revenue instead of leaving it stale. {@link #flush()} waits until everything queued
+ * before the call has been applied.
+ */
+@Component
+public class CompanyRevenueRecomputer {
+    private final CompanyRepository companyRepository;
+    private final CompanyRevenueLocks companyRevenueLocks;
+    private final TransactionRetry transactionRetry;
+    private final int batchSize;
+    private final long flushTimeoutMillis;
+    private final long retryBackoffMillis;
+    private final long maxRetryBackoffMillis;
+    private final Set<Integer> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean drainQueued = new AtomicBoolean();
+    private final ScheduledThreadPoolExecutor worker = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "revenue-recompute");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Failed drains in a row; only touched by the worker thread.
+    private int failures;
+
+    public CompanyRevenueRecomputer(CompanyRepository companyRepository, CompanyRevenueLocks companyRevenueLocks,
+                                    TransactionRetry transactionRetry,
+                                    @Value("${transport.revenue.recompute-batch-size:500}") int batchSize,
+                                    @Value("${transport.revenue.flush-timeout-ms:30000}") long flushTimeoutMillis,
+                                    @Value("${transport.revenue.retry-backoff-ms:1000}") long retryBackoffMillis,
+                                    @Value("${transport.revenue.max-retry-backoff-ms:60000}") long maxRetryBackoffMillis) {
+        this.companyRepository = companyRepository;
+        this.companyRevenueLocks = companyRevenueLocks;
+        this.transactionRetry = transactionRetry;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushTimeoutMillis = flushTimeoutMillis;
+        this.retryBackoffMillis = Math.max(1, retryBackoffMillis);
+        this.maxRetryBackoffMillis = Math.max(this.retryBackoffMillis, maxRetryBackoffMillis);
+        // Retries still waiting at shutdown are dropped; shutdown() makes one last attempt instead.
+        worker.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onRevenueChanged(CompanyRevenueChangedEvent event) {
+        enqueue(event.companyIds());
+    }
+
+    public void enqueue(Collection<Integer> companyIds) {
+        pending.addAll(companyIds);
+        // One drain task waits in the queue at most; ids added before it starts are picked up by it.
+        if (!pending.isEmpty() && drainQueued.compareAndSet(false, true)) {
+            worker.execute(this::drain);
+        }
+    }
+
+    // Blocks until every company queued before the call has its revenue recomputed. Returns false when a recompute
+    // failed (it stays queued and is retried in the background) or did not finish within the flush timeout.
+    public boolean flush() {
+        try {
+            return worker.submit(this::drain).get(flushTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Revenue recompute failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            return false;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        worker.execute(this::drain);
+        worker.shutdown();
+        worker.awaitTermination(flushTimeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Returns whether everything pending was applied.
+    private boolean drain() {
+        drainQueued.set(false);
+        while (!pending.isEmpty()) {
+            List<Integer> batch = new ArrayList<>(batchSize);
+            for (Integer companyId : new TreeSet<>(pending)) {
+                if (batch.size() == batchSize) {
+                    break;
+                }
+                pending.remove(companyId);
+                batch.add(companyId);
+            }
+            try {
+                transactionRetry.run(() -> {
+                    companyRevenueLocks.lockForTransaction(batch);
+                    companyRepository.recomputeRevenue(batch);
+                });
+            } catch (RuntimeException e) {
+                pending.addAll(batch);
+                long backoff = Math.min(maxRetryBackoffMillis, retryBackoffMillis << Math.min(failures++, 20));
+                System.err.println("Revenue recompute failed for companies " + batch + ": " + e.getMessage()
+                        + "; retrying in " + backoff + " ms");
+                if (!worker.isShutdown() && drainQueued.compareAndSet(false, true)) {
+                    worker.schedule(this::drain, backoff, TimeUnit.MILLISECONDS);
+                }
+                return false;
+            }
+        }
+        failures = 0;
+        return true;
+    }
+}
@@ -2,12 +2,16 @@ package org.example.service;
 
 import lombok.RequiredArgsConstructor;
 import org.example.dto.CompanyDto;
+import org.example.dto.AmountCursor;
 import org.example.dto.CompanyUpsertDto;
+import org.example.dto.KeysetPage;
+import org.example.dto.NameCursor;
 import org.example.exception.ValidationException;
 import org.example.mapper.CompanyMapper;
 import org.example.model.Company;
 import org.example.repository.CompanyRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.validation.ConstraintViolation;
@@ -21,6 +25,8 @@ import java.util.Set;
 public class CompanyService {
     private final CompanyRepository companyRepository;
     private final Validator validator;
+    private final TransactionRetry transactionRetry;
+    private final CompanyRevenueLocks companyRevenueLocks;
 
     public Company createCompany(Company company) throws ValidationException {
         validate(company);
@@ -47,24 +53,63 @@ public class CompanyService {
         return companyRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
     public List<CompanyDto> getAllCompanyDtos() {
-        return getAllCompanies().stream().map(CompanyMapper::toDto).toList();
+        return companyRepository.findAllDtos();
     }
 
     public List<Company> getAllCompaniesSortedByName() {
         return companyRepository.findAllByOrderByName();
     }
 
+    @Transactional(readOnly = true)
     public List<CompanyDto> getAllCompanyDtosSortedByName() {
-        return getAllCompaniesSortedByName().stream().map(CompanyMapper::toDto).toList();
+        return companyRepository.findAllDtosOrderByName();
     }
 
     public List<Company> getAllCompaniesSortedByRevenue() {
         return companyRepository.findAllByOrderByRevenueDesc();
     }
 
+    @Transactional(readOnly = true)
     public List<CompanyDto> getAllCompanyDtosSortedByRevenue() {
-        return getAllCompaniesSortedByRevenue().stream().map(CompanyMapper::toDto).toList();
+        return companyRepository.findAllDtosOrderByRevenueDesc();
+    }
+
+    // Page methods take the previous page's next cursor, or null for the first page.
+    public KeysetPage<Company, Integer> getCompanyPage(Integer afterId, int size) {
+        List<Company> rows = companyRepository.findByIdGreaterThanOrderById(afterId == null ? 0 : afterId,
+                KeysetPage.fetchLimit(size));
+        return KeysetPage.of(rows, size, Company::getId);
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetPage<CompanyDto, Integer> getCompanyDtoPage(Integer afterId, int size) {
+        return getCompanyPage(afterId, size).map(CompanyMapper::toDto);
+    }
+
+    public KeysetPage<Company, NameCursor> getCompanyPageSortedByName(NameCursor after, int size) {
+        List<Company> rows = after == null
+                ? companyRepository.findByOrderByNameAscIdAsc(KeysetPage.fetchLimit(size))
+                : companyRepository.findNextByName(after.name(), after.id(), KeysetPage.fetchLimit(size));
+        return KeysetPage.of(rows, size, c -> new NameCursor(c.getName(), c.getId()));
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetPage<CompanyDto, NameCursor> getCompanyDtoPageSortedByName(NameCursor after, int size) {
+        return getCompanyPageSortedByName(after, size).map(CompanyMapper::toDto);
+    }
+
+    public KeysetPage<Company, AmountCursor> getCompanyPageSortedByRevenue(AmountCursor after, int size) {
+        List<Company> rows = after == null
+                ? companyRepository.findByOrderByRevenueDescIdAsc(KeysetPage.fetchLimit(size))
+                : companyRepository.findNextByRevenue(after.amount(), after.id(), KeysetPage.fetchLimit(size));
+        return KeysetPage.of(rows, size, c -> new AmountCursor(c.getRevenue(), c.getId()));
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetPage<CompanyDto, AmountCursor> getCompanyDtoPageSortedByRevenue(AmountCursor after, int size) {
+        return getCompanyPageSortedByRevenue(after, size).map(CompanyMapper::toDto);
     }
 
     public Company updateCompany(Company company) throws ValidationException {
@@ -75,23 +120,38 @@ public class CompanyService {
             throw new ValidationException("Company with ID " + company.getId() + " does not exist");
         }
         validate(company);
+        keepStoredRevenue(company);
         return companyRepository.save(company);
     }
 
+    // Re-reads and re-applies the changes on each attempt, so a concurrent edit only costs a retry.
+    @Transactional(propagation = Propagation.SUPPORTS)
     public CompanyDto updateCompanyDto(CompanyUpsertDto dto) throws ValidationException {
         if (dto == null || dto.id() == null) {
             throw new ValidationException("Company ID is required for update");
         }
-        Company company = getCompanyById(dto.id());
-        CompanyMapper.applyUpsert(company, dto);
-        validate(company);
-        return CompanyMapper.toDto(companyRepository.save(company));
+        return transactionRetry.execute(() -> {
+            // Locked before the read, so concurrent edits of one company queue instead of failing their version check.
+            companyRevenueLocks.lockForTransaction(List.of(dto.id()));
+            Company company = getCompanyById(dto.id());
+            CompanyMapper.applyUpsert(company, dto);
+            validate(company);
+            keepStoredRevenue(company);
+            return CompanyMapper.toDto(companyRepository.save(company));
+        });
     }
 
     public void deleteCompany(Integer id) {
         companyRepository.deleteById(id);
     }
 
+    // The edited company may carry a revenue read before later transport writes. With the revenue lock held until
+    // commit no such write can land in between, so the stored total is the one the saved entity gets.
+    private void keepStoredRevenue(Company company) {
+        companyRevenueLocks.lockForTransaction(List.of(company.getId()));
+        company.setRevenue(companyRepository.findRevenueById(company.getId()));
+    }
+
     private void validate(Company company) throws ValidationException {
         Set<ConstraintViolation<Company>> violations = validator.validate(company);
         if (!violations.isEmpty()) {
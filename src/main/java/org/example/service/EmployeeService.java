@@ -1,8 +1,10 @@
 package org.example.service;
 
 import lombok.RequiredArgsConstructor;
+import org.example.dto.AmountCursor;
 import org.example.dto.EmployeeDto;
 import org.example.dto.EmployeeUpsertDto;
+import org.example.dto.KeysetPage;
 import org.example.exception.ValidationException;
 import org.example.mapper.EmployeeMapper;
 import org.example.model.Company;
@@ -10,6 +12,7 @@ import org.example.model.Employee;
 import org.example.repository.CompanyRepository;
 import org.example.repository.EmployeeRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.validation.ConstraintViolation;
@@ -24,6 +27,7 @@ public class EmployeeService {
     private final EmployeeRepository employeeRepository;
     private final CompanyRepository companyRepository;
     private final Validator validator;
+    private final TransactionRetry transactionRetry;
 
     public Employee createEmployee(Employee employee, Integer companyId) throws ValidationException {
         Company company = companyRepository.findById(companyId)
@@ -59,40 +63,86 @@ public class EmployeeService {
         return employeeRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
     public List<EmployeeDto> getAllEmployeeDtos() {
-        return getAllEmployees().stream().map(EmployeeMapper::toDto).toList();
+        return employeeRepository.findAllDtos();
     }
 
     public List<Employee> getEmployeesByCompanyId(Integer companyId) {
         return employeeRepository.findByCompanyId(companyId);
     }
 
+    @Transactional(readOnly = true)
     public List<EmployeeDto> getEmployeeDtosByCompanyId(Integer companyId) {
-        return getEmployeesByCompanyId(companyId).stream().map(EmployeeMapper::toDto).toList();
+        return employeeRepository.findDtosByCompanyId(companyId);
     }
 
     public List<Employee> getAllEmployeesSortedByQualification() {
         return employeeRepository.findAllOrderByQualification();
     }
 
+    @Transactional(readOnly = true)
     public List<EmployeeDto> getAllEmployeeDtosSortedByQualification() {
-        return getAllEmployeesSortedByQualification().stream().map(EmployeeMapper::toDto).toList();
+        return employeeRepository.findAllDtosOrderByQualification();
     }
 
     public List<Employee> getAllEmployeesSortedBySalary() {
         return employeeRepository.findAllOrderBySalaryDesc();
     }
 
+    @Transactional(readOnly = true)
     public List<EmployeeDto> getAllEmployeeDtosSortedBySalary() {
-        return getAllEmployeesSortedBySalary().stream().map(EmployeeMapper::toDto).toList();
+        return employeeRepository.findAllDtosOrderBySalaryDesc();
     }
 
     public List<Employee> getEmployeesByQualification(String qualification) {
         return employeeRepository.findByQualificationContainingIgnoreCase(qualification);
     }
 
+    @Transactional(readOnly = true)
     public List<EmployeeDto> getEmployeeDtosByQualification(String qualification) {
-        return getEmployeesByQualification(qualification).stream().map(EmployeeMapper::toDto).toList();
+        return employeeRepository.findDtosByQualificationContaining(qualification);
+    }
+
+    // Page methods take the previous page's next cursor, or null for the first page.
+    public KeysetPage<Employee, Integer> getEmployeePage(Integer afterId, int size) {
+        List<Employee> rows = employeeRepository.findByIdGreaterThanOrderById(afterId == null ? 0 : afterId,
+                KeysetPage.fetchLimit(size));
+        return KeysetPage.of(rows, size, Employee::getId);
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetPage<EmployeeDto, Integer> getEmployeeDtoPage(Integer afterId, int size) {
+        return getEmployeePage(afterId, size).map(EmployeeMapper::toDto);
+    }
+
+    public KeysetPage<Employee, Integer> getEmployeePageByCompanyId(Integer companyId, Integer afterId, int size) {
+        List<Employee> rows = employeeRepository.findByCompanyIdAndIdGreaterThanOrderById(companyId,
+                afterId == null ? 0 : afterId, KeysetPage.fetchLimit(size));
+        return KeysetPage.of(rows, size, Employee::getId);
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetPage<EmployeeDto, Integer> getEmployeeDtoPageByCompanyId(Integer companyId, Integer afterId, int size) {
+        return getEmployeePageByCompanyId(companyId, afterId, size).map(EmployeeMapper::toDto);
+    }
+
+    // A cursor without an amount means the previous page ended among the employees without a salary.
+    public KeysetPage<Employee, AmountCursor> getEmployeePageSortedBySalary(AmountCursor after, int size) {
+        List<Employee> rows;
+        if (after == null) {
+            rows = employeeRepository.findFirstPageBySalaryDesc(KeysetPage.fetchLimit(size));
+        } else if (after.amount() == null) {
+            rows = employeeRepository.findNextWithoutSalary(after.id(), KeysetPage.fetchLimit(size));
+        } else {
+            rows = employeeRepository.findNextBySalaryDesc(after.amount(), after.id(), KeysetPage.fetchLimit(size));
+        }
+        return KeysetPage.of(rows, size, e -> new AmountCursor(e.getSalary(), e.getId()));
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetPage<EmployeeDto, AmountCursor> getEmployeeDtoPageSortedBySalary(AmountCursor after, int size) {
+        return getEmployeePageSortedBySalary(after, size).map(EmployeeMapper::toDto);
     }
 
     public Employee updateEmployee(Employee employee, Integer companyId) throws ValidationException {
@@ -109,6 +159,7 @@ public class EmployeeService {
         return employeeRepository.save(employee);
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public EmployeeDto updateEmployeeDto(EmployeeUpsertDto dto) throws ValidationException {
         if (dto == null || dto.id() == null) {
             throw new ValidationException("Employee ID is required for update");
@@ -116,13 +167,15 @@ public class EmployeeService {
         if (dto.companyId() == null) {
             throw new ValidationException("Company ID is required");
         }
-        Employee employee = getEmployeeById(dto.id());
-        Company company = companyRepository.findById(dto.companyId())
-                .orElseThrow(() -> new ValidationException("Company with ID " + dto.companyId() + " does not exist"));
-        EmployeeMapper.applyUpsert(employee, dto);
-        employee.setCompany(company);
-        validate(employee);
-        return EmployeeMapper.toDto(employeeRepository.save(employee));
+        return transactionRetry.execute(() -> {
+            Employee employee = getEmployeeById(dto.id());
+            Company company = companyRepository.findById(dto.companyId())
+                    .orElseThrow(() -> new ValidationException("Company with ID " + dto.companyId() + " does not exist"));
+            EmployeeMapper.applyUpsert(employee, dto);
+            employee.setCompany(company);
+            validate(employee);
+            return EmployeeMapper.toDto(employeeRepository.save(employee));
+        });
     }
 
     public void deleteEmployee(Integer id) {
@@ -0,0 +1,42 @@
+package org.example.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * Per-import-key locks for import chunks on a partitioned transports table. Its unique index covers
+ * (import_key, start_date), so two imports of one key with different start dates would both find no transport and
+ * both insert one, and the replay would no longer update in place. Each chunk takes a transaction-scoped PostgreSQL
+ * advisory lock per key (by hash, so unrelated keys rarely share one) before looking its keys up; the second import
+ * waits until the first commits and then updates its row. The locks hold across application instances. Only active
+ * with {@code transport.partitioning.enabled}: the unpartitioned table's unique import_key refuses the second insert.
+ */
+@Component
+public class ImportKeyLocks {
+    // Keys are locked in hash order so that chunks sharing keys cannot deadlock.
+    private static final String LOCK_KEYS = "SELECT pg_advisory_xact_lock(h) FROM (SELECT DISTINCT "
+            + "hashtextextended(k, 0) AS h FROM unnest(?::text[]) AS k ORDER BY h) AS keys";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+
+    public ImportKeyLocks(JdbcTemplate jdbcTemplate,
+                          @Value("${transport.partitioning.enabled:false}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+    }
+
+    // Must run inside the transaction that writes the keys; the locks are released when it ends.
+    public void lockForTransaction(Collection<String> importKeys) {
+        if (!enabled || importKeys.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.query(LOCK_KEYS,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("text", importKeys.toArray())),
+                rs -> {
+                });
+    }
+}
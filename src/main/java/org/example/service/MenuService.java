@@ -1,11 +1,18 @@
 package org.example.service;
 
 import lombok.RequiredArgsConstructor;
+import org.example.dto.AmountCursor;
+import org.example.dto.DestinationCursor;
+import org.example.dto.KeysetPage;
+import org.example.dto.NameCursor;
+import org.example.dto.PaymentReconciliationResult;
+import org.example.dto.StartDateCursor;
+import org.example.dto.TransportDeltaExportResult;
+import org.example.dto.TransportImportResult;
 import org.example.exception.NotFoundException;
 import org.example.exception.ValidationException;
 import org.example.model.*;
-import org.example.util.TransportFileIO;
-import org.example.util.TransportFileRow;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
@@ -17,8 +24,9 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Scanner;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
@@ -29,10 +37,14 @@ public class MenuService {
     private final EmployeeService employeeService;
     private final TransportService transportService;
     private final ReportService reportService;
+    private final TransportImportService transportImportService;
+    private final PaymentReconciliationService paymentReconciliationService;
 
     private final Scanner scanner = new Scanner(System.in);
     private static final DateTimeFormatter DATE_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     private static final DateTimeFormatter DT_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final int PAGE_SIZE = 20;
+    private static final int SEARCH_LIMIT = 50;
 
     public void start() {
         while (true) {
@@ -65,6 +77,8 @@ public class MenuService {
                 }
             } catch (ValidationException | NotFoundException e) {
                 System.out.println("ERROR: " + e.getMessage());
+            } catch (OptimisticLockingFailureException e) {
+                System.out.println("ERROR: The record was changed by someone else; reload it and try again.");
             } catch (Exception e) {
                 System.out.println("UNEXPECTED ERROR: " + e.getMessage());
                 e.printStackTrace(System.out);
@@ -94,7 +108,7 @@ public class MenuService {
                     Company saved = companyService.createCompany(company);
                     System.out.println("Created company id=" + saved.getId());
                 }
-                case 2 -> companyService.getAllCompanies().forEach(System.out::println);
+                case 2 -> printPages((Integer after) -> companyService.getCompanyPage(after, PAGE_SIZE));
                 case 3 -> {
                     int id = readInt("Company id: ");
                     Company company = companyService.getCompanyById(id);
@@ -110,8 +124,8 @@ public class MenuService {
                     companyService.deleteCompany(id);
                     System.out.println("Deleted.");
                 }
-                case 5 -> companyService.getAllCompaniesSortedByName().forEach(System.out::println);
-                case 6 -> companyService.getAllCompaniesSortedByRevenue().forEach(System.out::println);
+                case 5 -> printPages((NameCursor after) -> companyService.getCompanyPageSortedByName(after, PAGE_SIZE));
+                case 6 -> printPages((AmountCursor after) -> companyService.getCompanyPageSortedByRevenue(after, PAGE_SIZE));
                 case 0 -> {
                     return;
                 }
@@ -143,10 +157,10 @@ public class MenuService {
                     Client saved = clientService.createClient(client, companyId);
                     System.out.println("Created client id=" + saved.getId());
                 }
-                case 2 -> clientService.getAllClients().forEach(System.out::println);
+                case 2 -> printPages((Integer after) -> clientService.getClientPage(after, PAGE_SIZE));
                 case 3 -> {
                     int companyId = readInt("Company id: ");
-                    clientService.getClientsByCompanyId(companyId).forEach(System.out::println);
+                    printPages((NameCursor after) -> clientService.getClientPageByCompanyId(companyId, after, PAGE_SIZE));
                 }
                 case 4 -> {
                     int id = readInt("Client id: ");
@@ -197,10 +211,10 @@ public class MenuService {
                     Vehicle saved = vehicleService.createVehicle(v, companyId);
                     System.out.println("Created vehicle id=" + saved.getId());
                 }
-                case 2 -> vehicleService.getAllVehicles().forEach(System.out::println);
+                case 2 -> printPages((Integer after) -> vehicleService.getVehiclePage(after, PAGE_SIZE));
                 case 3 -> {
                     int companyId = readInt("Company id: ");
-                    vehicleService.getVehiclesByCompanyId(companyId).forEach(System.out::println);
+                    printPages((Integer after) -> vehicleService.getVehiclePageByCompanyId(companyId, after, PAGE_SIZE));
                 }
                 case 4 -> {
                     int id = readInt("Vehicle id: ");
@@ -259,13 +273,13 @@ public class MenuService {
                     Employee saved = employeeService.createEmployee(e, companyId);
                     System.out.println("Created employee id=" + saved.getId());
                 }
-                case 2 -> employeeService.getAllEmployees().forEach(System.out::println);
+                case 2 -> printPages((Integer after) -> employeeService.getEmployeePage(after, PAGE_SIZE));
                 case 3 -> {
                     int companyId = readInt("Company id: ");
-                    employeeService.getEmployeesByCompanyId(companyId).forEach(System.out::println);
+                    printPages((Integer after) -> employeeService.getEmployeePageByCompanyId(companyId, after, PAGE_SIZE));
                 }
                 case 4 -> employeeService.getAllEmployeesSortedByQualification().forEach(System.out::println);
-                case 5 -> employeeService.getAllEmployeesSortedBySalary().forEach(System.out::println);
+                case 5 -> printPages((AmountCursor after) -> employeeService.getEmployeePageSortedBySalary(after, PAGE_SIZE));
                 case 6 -> {
                     String q = readString("Qualification contains: ");
                     employeeService.getEmployeesByQualification(q).forEach(System.out::println);
@@ -308,10 +322,11 @@ public class MenuService {
             System.out.println("2) List");
             System.out.println("3) List by company");
             System.out.println("4) Sort by destination");
-            System.out.println("5) Filter by destination");
+            System.out.println("5) Search by origin/destination");
             System.out.println("6) Mark paid");
             System.out.println("7) Update");
             System.out.println("8) Delete");
+            System.out.println("9) Mark paid in bulk");
             System.out.println("0) Back");
             int c = readInt("Choice: ");
             switch (c) {
@@ -336,15 +351,22 @@ public class MenuService {
                     Transport saved = transportService.createTransport(t, companyId, clientId, vehicleId, driverId);
                     System.out.println("Created transport id=" + saved.getId());
                 }
-                case 2 -> transportService.getAllTransports().forEach(System.out::println);
+                case 2 -> printPages((Integer after) -> transportService.getTransportPage(after, PAGE_SIZE));
                 case 3 -> {
                     int companyId = readInt("Company id: ");
-                    transportService.getTransportsByCompanyId(companyId).forEach(System.out::println);
+                    printPages((StartDateCursor after) -> transportService.getTransportPageByCompanyId(companyId, after, PAGE_SIZE));
                 }
-                case 4 -> transportService.getAllTransportsSortedByDestination().forEach(System.out::println);
+                case 4 -> printPages((DestinationCursor after) -> transportService.getTransportPageSortedByDestination(after, PAGE_SIZE));
                 case 5 -> {
-                    String d = readString("Destination contains: ");
-                    transportService.getTransportsByDestination(d).forEach(System.out::println);
+                    String o = readString("Origin contains (empty=any): ");
+                    String d = readString("Destination contains (empty=any): ");
+                    if (o.isEmpty()) {
+                        transportService.searchTransportDtosByDestination(d, SEARCH_LIMIT).forEach(System.out::println);
+                    } else if (d.isEmpty()) {
+                        transportService.searchTransportDtosByOrigin(o, SEARCH_LIMIT).forEach(System.out::println);
+                    } else {
+                        transportService.searchTransportDtosByRoute(o, d, SEARCH_LIMIT).forEach(System.out::println);
+                    }
                 }
                 case 6 -> {
                     int id = readInt("Transport id: ");
@@ -383,6 +405,22 @@ public class MenuService {
                     transportService.deleteTransport(id);
                     System.out.println("Deleted.");
                 }
+                case 9 -> {
+                    String by = readString("Mark paid by (ids/client/company): ").trim().toLowerCase();
+                    int marked = switch (by) {
+                        case "ids" -> transportService.markAllAsPaid(Arrays.stream(readString("Transport ids (comma-separated): ").split(","))
+                                .map(String::trim).filter(s -> !s.isEmpty()).map(Integer::valueOf).toList());
+                        case "client" -> transportService.markClientTransportsAsPaid(readInt("Client id: "));
+                        case "company" -> {
+                            int companyId = readInt("Company id: ");
+                            LocalDate start = readLocalDate("Start yyyy-MM-dd: ");
+                            LocalDate end = readLocalDate("End yyyy-MM-dd: ");
+                            yield transportService.markCompanyTransportsAsPaid(companyId, start.atStartOfDay(), end.atTime(23, 59, 59));
+                        }
+                        default -> throw new ValidationException("Choose ids, client or company");
+                    };
+                    System.out.println("Marked paid: " + marked);
+                }
                 case 0 -> {
                     return;
                 }
@@ -400,6 +438,8 @@ public class MenuService {
             System.out.println("3) Driver transport counts (by company)");
             System.out.println("4) Driver revenues (by company)");
             System.out.println("5) Company revenue for period");
+            System.out.println("6) Driver leaderboard (by company)");
+            System.out.println("7) Cache statistics");
             System.out.println("0) Back");
             int c = readInt("Choice: ");
             switch (c) {
@@ -422,6 +462,10 @@ public class MenuService {
                     BigDecimal rev = reportService.getCompanyRevenueForPeriod(companyId, start.atStartOfDay(), end.atTime(23, 59, 59));
                     System.out.println("Revenue: " + rev);
                 }
+                case 6 -> reportService.printDriverStats(readInt("Company id: "));
+                case 7 -> reportService.getCacheStatistics().forEach(r -> System.out.printf(
+                        "%-32s hits=%d misses=%d puts=%d hit ratio=%.1f%%%n",
+                        r.region(), r.hits(), r.misses(), r.puts(), r.hitRatio() * 100));
                 case 0 -> {
                     return;
                 }
@@ -437,42 +481,60 @@ public class MenuService {
             System.out.println("1) Export all to file");
             System.out.println("2) Export company to file");
             System.out.println("3) Import from file");
+            System.out.println("4) Export changes since last export");
+            System.out.println("5) Reconcile bank payment file");
             System.out.println("0) Back");
             int c = readInt("Choice: ");
             switch (c) {
                 case 1 -> {
-                    String path = readString("File path: ");
+                    String path = readString("File path (.tsnap = binary snapshot, add .gz/.lz4 to compress): ");
                     String resolved = resolveExportPath(path, "transports.txt");
-                    TransportFileIO.saveTransportsToFile(transportService.getAllTransports(), resolved);
-                    System.out.println("Exported.");
+                    long exported = transportService.exportAllTransportsToFile(resolved);
+                    System.out.println("Exported transports: " + exported);
                 }
                 case 2 -> {
                     int companyId = readInt("Company id: ");
-                    String path = readString("File path: ");
+                    String path = readString("File path (.tsnap = binary snapshot, add .gz/.lz4 to compress): ");
                     String resolved = resolveExportPath(path, "transports-company-" + companyId + ".txt");
-                    TransportFileIO.saveTransportsToFile(transportService.getTransportsByCompanyId(companyId), resolved);
-                    System.out.println("Exported.");
+                    long exported = transportService.exportTransportsByCompanyToFile(companyId, resolved);
+                    System.out.println("Exported transports: " + exported);
                 }
                 case 3 -> {
                     String path = readString("File path: ");
-                    List<TransportFileRow> rows = TransportFileIO.loadTransportsFromFile(path);
-                    int imported = 0;
-                    for (TransportFileRow row : rows) {
-                        Transport t = new Transport();
-                        t.setStartLocation(row.startLocation());
-                        t.setEndLocation(row.endLocation());
-                        t.setStartDate(row.startDate());
-                        t.setEndDate(row.endDate());
-                        t.setTransportType(row.transportType());
-                        t.setCargoDescription(row.cargoDescription());
-                        t.setCargoWeight(row.cargoWeight());
-                        t.setPassengerCount(row.passengerCount());
-                        t.setPrice(row.price());
-                        t.setIsPaid(row.isPaid());
-                        transportService.createTransport(t, row.companyId(), row.clientId(), row.vehicleId(), row.driverId());
-                        imported++;
+                    TransportImportResult result = transportImportService.importFromFile(path);
+                    if (result.resumedAfter() > 0) {
+                        System.out.println("Resumed after " + result.resumedAfter() + " already imported row(s).");
+                    }
+                    System.out.printf("Imported transports: %d in %d chunk(s), %.0f rows/sec%n",
+                            result.imported(), result.chunks(), result.rowsPerSecond());
+                    if (result.rejectedTotal() > 0) {
+                        System.out.println("Rejected lines: " + result.rejectedTotal() + " " + result.rejected()
+                                + " (see " + path + ".rejects)");
+                    }
+                    if (result.revenuePending()) {
+                        System.out.println("Company revenue is still being recomputed and will catch up shortly.");
+                    }
+                }
+                case 4 -> {
+                    Integer companyId = readIntNullable("Company id (empty = all): ");
+                    String path = readString("File path (.tsnap = binary snapshot, add .gz/.lz4 to compress): ");
+                    String resolved = resolveExportPath(path, companyId == null
+                            ? "transports-delta.txt" : "transports-company-" + companyId + "-delta.txt");
+                    TransportDeltaExportResult result = transportService.exportChangedTransportsToFile(companyId, resolved);
+                    System.out.println("Exported transports: " + result.exported()
+                            + (result.since() == null ? " (full, no previous watermark)" : " changed since " + result.since()));
+                }
+                case 5 -> {
+                    String path = readString("Payment file path (TransportID|Amount lines): ");
+                    PaymentReconciliationResult result = paymentReconciliationService.reconcile(path);
+                    System.out.println("Payments: " + result.total() + " in " + result.chunks() + " chunk(s), "
+                            + result.elapsed().toMillis() + " ms");
+                    System.out.println("Matched and marked paid: " + result.matched());
+                    System.out.println("Already paid: " + result.alreadyPaid());
+                    System.out.println("Unmatched (unknown transport or amount differs): " + result.unmatched());
+                    if (result.invalid() > 0) {
+                        System.out.println("Unparseable lines: " + result.invalid());
                     }
-                    System.out.println("Imported transports: " + imported);
                 }
                 case 0 -> {
                     return;
@@ -507,6 +569,18 @@ public class MenuService {
     }
 
     // ---- input helpers (centralized = “critical case” safety) ----
+    // Prints one page at a time; each page is fetched from the previous page's cursor.
+    private <T, C> void printPages(Function<C, KeysetPage<T, C>> fetchPage) {
+        KeysetPage<T, C> page = fetchPage.apply(null);
+        while (true) {
+            page.items().forEach(System.out::println);
+            if (!page.hasNext() || readString("Enter = next page, q = stop: ").equalsIgnoreCase("q")) {
+                return;
+            }
+            page = fetchPage.apply(page.next());
+        }
+    }
+
     private String readString(String prompt) {
         System.out.print(prompt);
         return scanner.nextLine().trim();
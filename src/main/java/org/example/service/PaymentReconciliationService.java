@@ -0,0 +1,68 @@
+package org.example.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.dto.PaymentReconciliationResult;
+import org.example.dto.TransportPaymentStatus;
+import org.example.repository.TransportRepository;
+import org.example.util.PaymentFileIO;
+import org.example.util.PaymentFileRow;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class PaymentReconciliationService {
+    private final TransportRepository transportRepository;
+    private final TransactionRetry transactionRetry;
+
+    @Value("${transport.payments.chunk-size:1000}")
+    private int chunkSize;
+
+    // Streams the bank file in chunks; per chunk, one query reads the payment status of the referenced transports
+    // and one UPDATE marks the matched ones paid, in a transaction of its own. A payment matches an unpaid
+    // transport with the same ID and price.
+    public PaymentReconciliationResult reconcile(String filePath) throws IOException {
+        long started = System.nanoTime();
+        // matched, alreadyPaid, unmatched, chunks
+        long[] counts = new long[4];
+        long invalid = PaymentFileIO.readPaymentChunks(filePath, chunkSize, rows -> {
+            long[] chunkCounts = transactionRetry.execute(() -> reconcileChunk(rows));
+            for (int i = 0; i < chunkCounts.length; i++) {
+                counts[i] += chunkCounts[i];
+            }
+            counts[3]++;
+        });
+        return new PaymentReconciliationResult(counts[0], counts[1], counts[2], invalid, counts[3],
+                Duration.ofNanos(System.nanoTime() - started));
+    }
+
+    private long[] reconcileChunk(List<PaymentFileRow> rows) {
+        Set<Integer> ids = rows.stream().map(PaymentFileRow::transportId).collect(Collectors.toSet());
+        Map<Integer, TransportPaymentStatus> transports = transportRepository.findPaymentStatusByIdIn(ids).stream()
+                .collect(Collectors.toMap(TransportPaymentStatus::id, Function.identity()));
+
+        Set<Integer> toMark = new LinkedHashSet<>();
+        long alreadyPaid = 0;
+        long unmatched = 0;
+        for (PaymentFileRow row : rows) {
+            TransportPaymentStatus transport = transports.get(row.transportId());
+            if (transport == null || transport.price().compareTo(row.amount()) != 0) {
+                unmatched++;
+            } else if (Boolean.TRUE.equals(transport.isPaid()) || !toMark.add(transport.id())) {
+                // Also a second payment for the same transport within the file.
+                alreadyPaid++;
+            }
+        }
+        long matched = toMark.isEmpty() ? 0 : transportRepository.markPaidByIdIn(toMark, LocalDateTime.now());
+        // Transports paid concurrently since the status read are not updated again; count them as already paid.
+        alreadyPaid += toMark.size() - matched;
+        return new long[]{matched, alreadyPaid, unmatched};
+    }
+}
@@ -1,18 +1,26 @@
 package org.example.service;
 
+import jakarta.persistence.EntityManagerFactory;
 import lombok.RequiredArgsConstructor;
+import org.example.dto.CacheRegionStatsDto;
+import org.example.dto.DriverStatsDto;
 import org.example.model.Company;
 import org.example.model.Employee;
-import org.example.model.Transport;
 import org.example.repository.CompanyRepository;
 import org.example.repository.EmployeeRepository;
 import org.example.repository.TransportRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -23,65 +31,59 @@ public class ReportService {
     private final TransportRepository transportRepository;
     private final EmployeeRepository employeeRepository;
     private final CompanyRepository companyRepository;
+    private final EntityManagerFactory entityManagerFactory;
 
     public int getTotalTransportCount() {
         return (int) transportRepository.count();
     }
 
     public int getTotalTransportCountByCompany(Integer companyId) {
-        return transportRepository.findByCompanyId(companyId).size();
+        return (int) transportRepository.countByCompanyId(companyId);
     }
 
     public BigDecimal getTotalRevenue() {
-        List<Transport> transports = transportRepository.findAll();
-        return transports.stream()
-                .map(Transport::getPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return transportRepository.sumPrice();
     }
 
     public BigDecimal getTotalRevenueByCompany(Integer companyId) {
-        List<Transport> transports = transportRepository.findByCompanyId(companyId);
-        return transports.stream()
-                .map(Transport::getPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return transportRepository.sumPriceByCompanyId(companyId);
+    }
+
+    // Driver ID -> stats, highest revenue first.
+    public Map<Integer, DriverStatsDto> getDriverStats(Integer companyId) {
+        Map<Integer, DriverStatsDto> stats = new LinkedHashMap<>();
+        for (DriverStatsDto row : transportRepository.findDriverStatsByCompanyId(companyId)) {
+            stats.put(row.driverId(), row);
+        }
+        return stats;
     }
 
     public Map<Employee, Integer> getDriverTransportCounts(Integer companyId) {
         Map<Employee, Integer> driverCounts = new HashMap<>();
-        List<Employee> employees = employeeRepository.findByCompanyId(companyId);
-        
-        for (Employee employee : employees) {
-            if ("DRIVER".equalsIgnoreCase(employee.getPosition())) {
-                List<Transport> transports = transportRepository.findByDriverId(employee.getId());
-                driverCounts.put(employee, transports.size());
+        Map<Integer, DriverStatsDto> stats = getDriverStats(companyId);
+        for (Employee employee : employeeRepository.findByCompanyId(companyId)) {
+            DriverStatsDto driverStats = stats.get(employee.getId());
+            if (driverStats != null) {
+                driverCounts.put(employee, (int) driverStats.transportCount());
             }
         }
-        
         return driverCounts;
     }
 
     public Map<Employee, BigDecimal> getDriverRevenues(Integer companyId) {
         Map<Employee, BigDecimal> driverRevenues = new HashMap<>();
-        List<Employee> employees = employeeRepository.findByCompanyId(companyId);
-        
-        for (Employee employee : employees) {
-            if ("DRIVER".equalsIgnoreCase(employee.getPosition())) {
-                List<Transport> transports = transportRepository.findByDriverId(employee.getId());
-                BigDecimal revenue = transports.stream()
-                        .map(Transport::getPrice)
-                        .reduce(BigDecimal.ZERO, BigDecimal::add);
-                driverRevenues.put(employee, revenue);
+        Map<Integer, DriverStatsDto> stats = getDriverStats(companyId);
+        for (Employee employee : employeeRepository.findByCompanyId(companyId)) {
+            DriverStatsDto driverStats = stats.get(employee.getId());
+            if (driverStats != null) {
+                driverRevenues.put(employee, driverStats.revenue());
             }
         }
-        
         return driverRevenues;
     }
 
     public BigDecimal getCompanyRevenueForPeriod(Integer companyId, LocalDateTime startDate, LocalDateTime endDate) {
-        List<Transport> transports = transportRepository.findByCompanyIdAndDateRange(companyId, startDate, endDate);
-        return transports.stream()
-                .map(Transport::getPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return transportRepository.sumPriceByCompanyIdAndDateRange(companyId, startDate, endDate);
     }
 
     public void printTotalTransportCount() {
@@ -124,6 +126,22 @@ public class ReportService {
         }
     }
 
+    public void printDriverStats(Integer companyId) {
+        Map<Integer, DriverStatsDto> stats = getDriverStats(companyId);
+        System.out.println("\nDriver Leaderboard:");
+        System.out.println("-------------------");
+        if (stats.isEmpty()) {
+            System.out.println("No drivers found for this company.");
+        } else {
+            for (DriverStatsDto driver : stats.values()) {
+                System.out.println(driver.fullName() + " (ID: " + driver.driverId() + "): " + driver.transportCount()
+                        + " transports, revenue " + driver.revenue()
+                        + " (paid " + driver.paidCount() + " / " + driver.paidRevenue()
+                        + ", unpaid " + driver.unpaidCount() + " / " + driver.unpaidRevenue() + ")");
+            }
+        }
+    }
+
     public void printCompanyRevenueForPeriod(Integer companyId, LocalDateTime startDate, LocalDateTime endDate) {
         Company company = companyRepository.findById(companyId).orElse(null);
         if (company == null) {
@@ -138,4 +156,20 @@ public class ReportService {
         System.out.println("Period: " + startDate.toLocalDate() + " to " + endDate.toLocalDate());
         System.out.println("Revenue: " + revenue);
     }
+
+    // Second-level cache counters since startup, one row per region (needs hibernate.generate_statistics).
+    public List<CacheRegionStatsDto> getCacheStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<CacheRegionStatsDto> rows = new ArrayList<>();
+        String[] regions = statistics.getSecondLevelCacheRegionNames();
+        Arrays.sort(regions);
+        for (String region : regions) {
+            CacheRegionStatistics stats = statistics.getCacheRegionStatistics(region);
+            if (stats != null) {
+                rows.add(new CacheRegionStatsDto(region, stats.getHitCount(), stats.getMissCount(), stats.getPutCount()));
+            }
+        }
+        return rows;
+    }
+
 }
@@ -0,0 +1,64 @@
+package org.example.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+/**
+ * Runs a unit of work in its own transaction and retries it a bounded number of times when it fails on a
+ * concurrency conflict: an optimistic version check, a lock timeout or a deadlock. Each attempt starts from a fresh
+ * transaction, so the work must re-read whatever it changes. Inside an existing transaction the work runs once in
+ * that transaction, and a conflict propagates to its owner.
+ */
+@Component
+public class TransactionRetry {
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final long backoffMillis;
+
+    public TransactionRetry(TransactionTemplate transactionTemplate,
+                            @Value("${transport.write.max-attempts:3}") int maxAttempts,
+                            @Value("${transport.write.retry-backoff-ms:20}") long backoffMillis) {
+        this.transactionTemplate = transactionTemplate;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffMillis = backoffMillis;
+    }
+
+    public <T> T execute(Supplier<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return work.get();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                backOff(attempt);
+            }
+        }
+    }
+
+    public void run(Runnable work) {
+        execute(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    // Linear backoff with jitter, so writers that collided do not collide again on the next attempt.
+    private void backOff(int attempt) {
+        long millis = backoffMillis * attempt + (long) (Math.random() * backoffMillis);
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to retry", e);
+        }
+    }
+}
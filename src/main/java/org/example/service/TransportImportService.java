@@ -0,0 +1,249 @@
+package org.example.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.dto.TransportImportResult;
+import org.example.exception.ValidationException;
+import org.example.mapper.TransportMapper;
+import org.example.model.*;
+import org.example.repository.*;
+import org.example.util.TransportFileIO;
+import org.example.util.TransportFileRow;
+import org.example.util.TransportImportCheckpoint;
+import org.example.util.TransportRejectReason;
+import org.example.util.TransportRowRejects;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class TransportImportService {
+    private final TransportRepository transportRepository;
+    private final CompanyRepository companyRepository;
+    private final ClientRepository clientRepository;
+    private final VehicleRepository vehicleRepository;
+    private final EmployeeRepository employeeRepository;
+    private final TransportService transportService;
+    private final TransactionRetry transactionRetry;
+    private final CompanyRevenueRecomputer revenueRecomputer;
+    private final ImportKeyLocks importKeyLocks;
+
+    @Value("${transport.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${transport.import.parallel-parse:false}")
+    private boolean parallelParse;
+
+    @Value("${transport.import.max-rejects:1000}")
+    private long maxRejects;
+
+    // Each chunk is committed in its own transaction (retried on write conflicts), so a failing row only rolls back
+    // its own chunk.
+    // After every commit the position is saved to a checkpoint next to the file; a rerun resumes from there,
+    // and since rows are upserted by import key, chunks replayed after a crash update in place.
+    public TransportImportResult importFromFile(String filePath) throws IOException {
+        long started = System.nanoTime();
+        TransportImportCheckpoint resumeFrom = TransportImportCheckpoint.load(filePath);
+        long resumedAfter = resumeFrom == null ? 0 : resumeFrom.rows();
+        long[] chunks = {0};
+        long[] refused = {0};
+        long imported;
+        boolean parallel = parallelParse && TransportFileIO.isPlainTextFile(filePath);
+        // Unparseable lines go to "<file>.rejects". Only a resume that seeks past the checkpoint keeps the
+        // previous run's rejects; every other run re-reads, and so re-reports, all lines.
+        boolean appendRejects = !parallel && TransportFileIO.canResumeBySeeking(filePath, resumeFrom);
+        try (TransportRowRejects rejects = TransportRowRejects.toFile(filePath, appendRejects, maxRejects)) {
+            if (parallel) {
+                List<TransportFileRow> rows = TransportFileIO.loadTransportsFromFileParallel(filePath, rejects);
+                int first = (int) Math.min(resumedAfter, rows.size());
+                for (int from = first; from < rows.size(); from += chunkSize) {
+                    int to = Math.min(from + chunkSize, rows.size());
+                    refused[0] += importCommitted(filePath, rows.subList(from, to), new TransportImportCheckpoint(to, -1), rejects);
+                    chunks[0]++;
+                }
+                imported = rows.size() - first;
+            } else {
+                imported = TransportFileIO.readImportChunks(filePath, chunkSize, resumeFrom, rejects, (rows, checkpoint) -> {
+                    refused[0] += importCommitted(filePath, rows, checkpoint, rejects);
+                    chunks[0]++;
+                });
+            }
+            imported -= refused[0];
+            TransportImportCheckpoint.delete(filePath);
+            // The chunks only queued their revenue recomputes. The rows are committed either way, so a recompute that
+            // failed or is slow is reported as pending (the recomputer keeps retrying it) rather than failing the import.
+            boolean revenueCurrent = revenueRecomputer.flush();
+            return new TransportImportResult(imported, chunks[0], resumedAfter, rejects.counts(),
+                    Duration.ofNanos(System.nanoTime() - started), !revenueCurrent);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Rows the chunk refuses are reported only after it commits, so a retried attempt does not report them twice.
+    // Returns how many rows were refused.
+    private int importCommitted(String filePath, List<TransportFileRow> rows, TransportImportCheckpoint checkpoint,
+                                TransportRowRejects rejects) {
+        List<RefusedRow> refused = transactionRetry.execute(() -> importChunk(rows));
+        try {
+            for (RefusedRow row : refused) {
+                rejects.reject(row.reason(), row.message(), row.row());
+            }
+        } finally {
+            try {
+                checkpoint.save(filePath);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return refused.size();
+    }
+
+    private record RefusedRow(TransportRejectReason reason, String message, TransportFileRow row) {
+    }
+
+    private List<RefusedRow> importChunk(List<TransportFileRow> rows) {
+        Map<Integer, Company> companies = findAllById(companyRepository::findAllById, rows, TransportFileRow::companyId, Company::getId);
+        Map<Integer, Client> clients = findAllById(clientRepository::findAllById, rows, TransportFileRow::clientId, Client::getId);
+        Map<Integer, Vehicle> vehicles = findAllById(vehicleRepository::findAllById, rows, TransportFileRow::vehicleId, Vehicle::getId);
+        Map<Integer, Employee> drivers = findAllById(employeeRepository::findAllById, rows, TransportFileRow::driverId, Employee::getId);
+
+        // A key repeated within the chunk resolves to one transport; the last row wins, as it would across chunks.
+        Map<String, TransportFileRow> rowsByKey = new LinkedHashMap<>();
+        for (TransportFileRow row : rows) {
+            rowsByKey.put(importKey(row), row);
+        }
+        // On a partitioned table the unique index covers (import_key, start_date): the key locks keep concurrent
+        // imports of a key from inserting it twice, and a key that still matches several transports (written
+        // outside an import) has no single target and is refused instead of picking one.
+        importKeyLocks.lockForTransaction(rowsByKey.keySet());
+        Map<String, List<Transport>> existing = transportRepository.findByImportKeyIn(rowsByKey.keySet()).stream()
+                .collect(Collectors.groupingBy(Transport::getImportKey));
+
+        List<Transport> inserts = new ArrayList<>();
+        List<RefusedRow> refused = new ArrayList<>();
+        Set<Integer> revenueChanged = new HashSet<>();
+        for (Map.Entry<String, TransportFileRow> entry : rowsByKey.entrySet()) {
+            TransportFileRow row = entry.getValue();
+            List<Transport> matches = existing.getOrDefault(entry.getKey(), List.of());
+            if (matches.size() > 1) {
+                refused.add(new RefusedRow(TransportRejectReason.DUPLICATE_IMPORT_KEY, "Import key " + entry.getKey()
+                        + " matches transports " + matches.stream().map(Transport::getId).sorted().toList(), row));
+                continue;
+            }
+            // The row is checked on a new transport first, so a refused row never leaves a managed one half-updated.
+            Transport candidate = TransportMapper.fromFileRow(row);
+            try {
+                attachReferences(candidate, row, companies, clients, vehicles, drivers);
+            } catch (ValidationException e) {
+                refused.add(new RefusedRow(TransportRejectReason.INVALID_REFERENCE, e.getMessage(), row));
+                continue;
+            }
+            try {
+                transportService.validate(candidate);
+            } catch (ValidationException e) {
+                refused.add(new RefusedRow(TransportRejectReason.INVALID_VALUE, e.getMessage(), row));
+                continue;
+            }
+
+            Integer companyId = candidate.getCompany().getId();
+            Transport transport = matches.isEmpty() ? null : matches.get(0);
+            if (transport == null) {
+                candidate.setImportKey(entry.getKey());
+                inserts.add(candidate);
+                revenueChanged.add(companyId);
+            } else {
+                // Managed entity: dirty checking turns an unchanged replay into no UPDATE at all, and such a
+                // replay leaves the revenue alone too.
+                if (!companyId.equals(transport.getCompany().getId())
+                        || !Objects.equals(transport.getPrice(), row.price())) {
+                    revenueChanged.add(transport.getCompany().getId());
+                    revenueChanged.add(companyId);
+                }
+                TransportMapper.applyFileRow(transport, row);
+                transport.setCompany(candidate.getCompany());
+                transport.setClient(candidate.getClient());
+                transport.setVehicle(candidate.getVehicle());
+                transport.setDriver(candidate.getDriver());
+            }
+        }
+
+        transportRepository.saveAll(inserts);
+        transportService.revenueChanged(revenueChanged.toArray(Integer[]::new));
+        return refused;
+    }
+
+    // Same rules as TransportService.attachReferences: every referenced row exists and belongs to the row's company.
+    private static void attachReferences(Transport transport, TransportFileRow row, Map<Integer, Company> companies,
+                                         Map<Integer, Client> clients, Map<Integer, Vehicle> vehicles,
+                                         Map<Integer, Employee> drivers) throws ValidationException {
+        if (row.companyId() == null) {
+            throw new ValidationException("Company ID is required");
+        }
+        if (row.clientId() == null) {
+            throw new ValidationException("Client ID is required");
+        }
+        Company company = companies.get(row.companyId());
+        if (company == null) {
+            throw new ValidationException("Company with ID " + row.companyId() + " does not exist");
+        }
+        Client client = clients.get(row.clientId());
+        TransportService.requireOwner("Client", row.clientId(), ownerOf(client, Client::getCompany), company.getId());
+        Vehicle vehicle = null;
+        if (row.vehicleId() != null) {
+            vehicle = vehicles.get(row.vehicleId());
+            TransportService.requireOwner("Vehicle", row.vehicleId(), ownerOf(vehicle, Vehicle::getCompany), company.getId());
+        }
+        Employee driver = null;
+        if (row.driverId() != null) {
+            driver = drivers.get(row.driverId());
+            TransportService.requireOwner("Driver", row.driverId(), ownerOf(driver, Employee::getCompany), company.getId());
+        }
+
+        transport.setCompany(company);
+        transport.setClient(client);
+        transport.setVehicle(vehicle);
+        transport.setDriver(driver);
+    }
+
+    // The owner's id comes from the lazy association's proxy, so the owning company is not loaded.
+    private static <T> Integer ownerOf(T entity, Function<T, Company> company) {
+        return entity == null ? null : company.apply(entity).getId();
+    }
+
+    // "id:<ID>" when the file carries its own ID, otherwise a hash of the fields that identify a trip.
+    private static String importKey(TransportFileRow row) {
+        if (row.id() != null) {
+            return "id:" + row.id();
+        }
+        String naturalKey = row.companyId() + "|" + row.clientId() + "|" + row.startLocation() + "|"
+                + row.endLocation() + "|" + row.startDate() + "|" + row.transportType();
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(naturalKey.getBytes(StandardCharsets.UTF_8));
+            return "nk:" + HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static <T> Map<Integer, T> findAllById(Function<Set<Integer>, List<T>> finder, List<TransportFileRow> rows,
+                                                   Function<TransportFileRow, Integer> idOf, Function<T, Integer> entityId) {
+        Set<Integer> ids = rows.stream()
+                .map(idOf)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return finder.apply(ids).stream().collect(Collectors.toMap(entityId, Function.identity()));
+    }
+}
@@ -0,0 +1,99 @@
+package org.example.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps monthly partitions of a transports table range-partitioned by start_date (see
+ * db/partition-transports-by-start-date.sql) created ahead of time: at startup and then daily, the current month
+ * and the next {@code transport.partitioning.months-ahead} months get a partition if they have none. Rows that
+ * already landed in the default partition for such a month are moved into the new partition.
+ */
+@Component
+@ConditionalOnProperty(name = "transport.partitioning.enabled", havingValue = "true")
+public class TransportPartitionMaintainer {
+    private static final String TABLE = "transports";
+    private static final String DEFAULT_PARTITION = TABLE + "_default";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("'_y'yyyy'm'MM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int monthsAhead;
+
+    public TransportPartitionMaintainer(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                        @Value("${transport.partitioning.months-ahead:3}") int monthsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.monthsAhead = Math.max(0, monthsAhead);
+    }
+
+    // ApplicationStartedEvent rather than ApplicationReadyEvent: the latter only comes after the console menu exits.
+    @EventListener(ApplicationStartedEvent.class)
+    @Scheduled(cron = "${transport.partitioning.cron:0 0 3 * * *}")
+    public void createUpcomingPartitions() {
+        try {
+            List<String> created = ensureMonthlyPartitions(LocalDate.now().withDayOfMonth(1), monthsAhead);
+            if (!created.isEmpty()) {
+                System.out.println("Created transport partitions: " + created);
+            }
+        } catch (RuntimeException e) {
+            // Inserts still succeed through the default partition; the next run tries again.
+            System.err.println("Transport partition maintenance failed: " + e.getMessage());
+        }
+    }
+
+    // Returns the names of the partitions created for firstMonth and the months after it.
+    public List<String> ensureMonthlyPartitions(LocalDate firstMonth, int monthsAfter) {
+        if (!isPartitioned()) {
+            throw new IllegalStateException(TABLE + " is not partitioned; migrate it with "
+                    + "db/partition-transports-by-start-date.sql or set transport.partitioning.enabled=false");
+        }
+        List<String> created = new ArrayList<>();
+        for (int i = 0; i <= monthsAfter; i++) {
+            LocalDate from = firstMonth.withDayOfMonth(1).plusMonths(i);
+            String partition = TABLE + from.format(PARTITION_SUFFIX);
+            if (relationExists(partition)) {
+                continue;
+            }
+            transactionTemplate.executeWithoutResult(status -> createPartition(partition, from, from.plusMonths(1)));
+            created.add(partition);
+        }
+        return created;
+    }
+
+    private void createPartition(String partition, LocalDate from, LocalDate to) {
+        String bounds = "FOR VALUES FROM ('" + from + "') TO ('" + to + "')";
+        boolean strandedRows = relationExists(DEFAULT_PARTITION) && Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM " + DEFAULT_PARTITION + " WHERE start_date >= ? AND start_date < ?)",
+                Boolean.class, from.atStartOfDay(), to.atStartOfDay()));
+        if (!strandedRows) {
+            jdbcTemplate.execute("CREATE TABLE " + partition + " PARTITION OF " + TABLE + " " + bounds);
+            return;
+        }
+        // A partition cannot be added while the default partition holds rows of its range: move them over first.
+        jdbcTemplate.execute("CREATE TABLE " + partition + " (LIKE " + TABLE + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        jdbcTemplate.update("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION + " WHERE start_date >= ? AND start_date < ? "
+                + "RETURNING *) INSERT INTO " + partition + " SELECT * FROM moved", from.atStartOfDay(), to.atStartOfDay());
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " ATTACH PARTITION " + partition + " " + bounds);
+    }
+
+    private boolean isPartitioned() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass(?))", Boolean.class, TABLE));
+    }
+
+    private boolean relationExists(String name) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, name));
+    }
+}
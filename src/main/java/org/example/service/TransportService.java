@@ -1,53 +1,76 @@
 package org.example.service;
 
 import lombok.RequiredArgsConstructor;
+import org.example.dto.DestinationCursor;
+import org.example.dto.KeysetPage;
+import org.example.dto.StartDateCursor;
+import org.example.dto.TransportDeltaExportResult;
 import org.example.dto.TransportDto;
+import org.example.dto.TransportReferenceOwners;
 import org.example.dto.TransportUpsertDto;
 import org.example.exception.ValidationException;
 import org.example.mapper.TransportMapper;
 import org.example.model.*;
 import org.example.repository.*;
+import org.example.util.TransportExportManifest;
+import org.example.util.TransportFileIO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validator;
-import java.math.BigDecimal;
+import java.io.IOException;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 @RequiredArgsConstructor
 public class TransportService {
+    // Well below the bind-parameter limits of PostgreSQL's and H2's drivers.
+    static final int MARK_PAID_BATCH_SIZE = 1000;
+
     private final TransportRepository transportRepository;
     private final CompanyRepository companyRepository;
     private final ClientRepository clientRepository;
     private final VehicleRepository vehicleRepository;
     private final EmployeeRepository employeeRepository;
     private final Validator validator;
+    private final TransactionRetry transactionRetry;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${transport.export.delta-overlap-ms:300000}")
+    private long deltaOverlapMs;
 
+    // Writes run through TransactionRetry, which opens the transaction (SUPPORTS only joins a caller's one) and
+    // retries it on optimistic-lock and lock-timeout conflicts.
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Transport createTransport(Transport transport, Integer companyId, Integer clientId, 
                                     Integer vehicleId, Integer driverId) throws ValidationException {
-        Company company = companyRepository.findById(companyId)
-                .orElseThrow(() -> new ValidationException("Company with ID " + companyId + " does not exist"));
-        Client client = clientRepository.findById(clientId)
-                .orElseThrow(() -> new ValidationException("Client with ID " + clientId + " does not exist"));
-        Vehicle vehicle = vehicleId != null ? vehicleRepository.findById(vehicleId).orElse(null) : null;
-        Employee driver = driverId != null ? employeeRepository.findById(driverId).orElse(null) : null;
-
-        transport.setCompany(company);
-        transport.setClient(client);
-        transport.setVehicle(vehicle);
-        transport.setDriver(driver);
-
-        validate(transport);
-        Transport saved = transportRepository.save(transport);
-        updateCompanyRevenue(companyId);
-        return saved;
+        return transactionRetry.execute(() -> {
+            // A failed attempt leaves the generated id and version behind; every attempt inserts afresh.
+            transport.setId(null);
+            transport.setVersion(null);
+            attachReferences(transport, companyId, clientId, vehicleId, driverId);
+
+            validate(transport);
+            Transport saved = transportRepository.save(transport);
+            revenueChanged(companyId);
+            return saved;
+        });
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public TransportDto createTransportDto(TransportUpsertDto dto) throws ValidationException {
         if (dto == null || dto.companyId() == null) {
             throw new ValidationException("Company ID is required");
@@ -56,24 +79,16 @@ public class TransportService {
             throw new ValidationException("Client ID is required");
         }
 
-        Company company = companyRepository.findById(dto.companyId())
-                .orElseThrow(() -> new ValidationException("Company with ID " + dto.companyId() + " does not exist"));
-        Client client = clientRepository.findById(dto.clientId())
-                .orElseThrow(() -> new ValidationException("Client with ID " + dto.clientId() + " does not exist"));
-        Vehicle vehicle = dto.vehicleId() != null ? vehicleRepository.findById(dto.vehicleId()).orElse(null) : null;
-        Employee driver = dto.driverId() != null ? employeeRepository.findById(dto.driverId()).orElse(null) : null;
+        return transactionRetry.execute(() -> {
+            Transport transport = new Transport();
+            TransportMapper.applyUpsert(transport, dto);
+            attachReferences(transport, dto.companyId(), dto.clientId(), dto.vehicleId(), dto.driverId());
 
-        Transport transport = new Transport();
-        TransportMapper.applyUpsert(transport, dto);
-        transport.setCompany(company);
-        transport.setClient(client);
-        transport.setVehicle(vehicle);
-        transport.setDriver(driver);
-
-        validate(transport);
-        Transport saved = transportRepository.save(transport);
-        updateCompanyRevenue(dto.companyId());
-        return TransportMapper.toDto(saved);
+            validate(transport);
+            Transport saved = transportRepository.save(transport);
+            revenueChanged(dto.companyId());
+            return TransportMapper.toDto(saved);
+        });
     }
 
     public Transport getTransportById(Integer id) {
@@ -89,72 +104,180 @@ public class TransportService {
         return transportRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
     public List<TransportDto> getAllTransportDtos() {
-        return getAllTransports().stream().map(TransportMapper::toDto).toList();
+        return transportRepository.findAllDtos();
+    }
+
+    @Transactional(readOnly = true)
+    public long exportAllTransportsToFile(String filePath) throws IOException {
+        try (Stream<TransportDto> transports = transportRepository.streamAllForExport()) {
+            return TransportFileIO.writeTransportDtosToFile(transports, filePath);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportTransportsByCompanyToFile(Integer companyId, String filePath) throws IOException {
+        try (Stream<TransportDto> transports = transportRepository.streamByCompanyIdForExport(companyId)) {
+            return TransportFileIO.writeTransportDtosToFile(transports, filePath);
+        }
+    }
+
+    // Writes only transports changed since the watermark kept in the export directory's manifest and
+    // advances it; without a watermark (first run) everything is exported. updated_at is stamped at flush, so a
+    // transaction can commit a row stamped before a watermark that was already read; each delta therefore re-scans
+    // deltaOverlapMs before the watermark and may repeat rows, which consumers dedupe by transport id.
+    @Transactional(readOnly = true)
+    public TransportDeltaExportResult exportChangedTransportsToFile(Integer companyId, String filePath) throws IOException {
+        String scope = companyId == null ? "all" : "company." + companyId;
+        LocalDateTime since = TransportExportManifest.readWatermark(filePath, scope);
+        LocalDateTime until = companyId == null
+                ? transportRepository.findMaxUpdatedAt()
+                : transportRepository.findMaxUpdatedAtByCompanyId(companyId);
+
+        long exported;
+        if (since == null) {
+            exported = companyId == null
+                    ? exportAllTransportsToFile(filePath)
+                    : exportTransportsByCompanyToFile(companyId, filePath);
+        } else {
+            if (until == null || until.isBefore(since)) {
+                until = since;
+            }
+            LocalDateTime from = since.minus(Duration.ofMillis(deltaOverlapMs));
+            try (Stream<TransportDto> transports = companyId == null
+                    ? transportRepository.streamUpdatedBetweenForExport(from, until)
+                    : transportRepository.streamByCompanyIdUpdatedBetweenForExport(companyId, from, until)) {
+                exported = TransportFileIO.writeTransportDtosToFile(transports, filePath);
+            }
+        }
+
+        if (until != null) {
+            TransportExportManifest.writeWatermark(filePath, scope, until);
+        }
+        return new TransportDeltaExportResult(exported, since, until);
     }
 
     public List<Transport> getTransportsByDestination(String destination) {
         return transportRepository.findByDestination(destination);
     }
 
+    @Transactional(readOnly = true)
     public List<TransportDto> getTransportDtosByDestination(String destination) {
-        return getTransportsByDestination(destination).stream().map(TransportMapper::toDto).toList();
+        return transportRepository.findDtosByDestination(destination);
+    }
+
+    // Searches return the most recent matches first, at most limit of them.
+    @Transactional(readOnly = true)
+    public List<TransportDto> searchTransportDtosByOrigin(String origin, int limit) {
+        return transportRepository.searchByOrigin(searchTerm(origin, "Origin"), searchLimit(limit));
+    }
+
+    @Transactional(readOnly = true)
+    public List<TransportDto> searchTransportDtosByDestination(String destination, int limit) {
+        return transportRepository.searchByDestination(searchTerm(destination, "Destination"), searchLimit(limit));
+    }
+
+    @Transactional(readOnly = true)
+    public List<TransportDto> searchTransportDtosByRoute(String origin, String destination, int limit) {
+        return transportRepository.searchByRoute(searchTerm(origin, "Origin"),
+                searchTerm(destination, "Destination"), searchLimit(limit));
     }
 
     public List<Transport> getAllTransportsSortedByDestination() {
         return transportRepository.findAllOrderByDestination();
     }
 
+    @Transactional(readOnly = true)
     public List<TransportDto> getAllTransportDtosSortedByDestination() {
-        return getAllTransportsSortedByDestination().stream().map(TransportMapper::toDto).toList();
+        return transportRepository.findAllDtosOrderByDestination();
     }
 
     public List<Transport> getTransportsByCompanyId(Integer companyId) {
         return transportRepository.findByCompanyId(companyId);
     }
 
+    @Transactional(readOnly = true)
     public List<TransportDto> getTransportDtosByCompanyId(Integer companyId) {
-        return getTransportsByCompanyId(companyId).stream().map(TransportMapper::toDto).toList();
+        return transportRepository.findDtosByCompanyId(companyId);
+    }
+
+    // Page methods take the previous page's next cursor, or null for the first page.
+    public KeysetPage<Transport, Integer> getTransportPage(Integer afterId, int size) {
+        List<Transport> rows = transportRepository.findByIdGreaterThanOrderById(afterId == null ? 0 : afterId,
+                KeysetPage.fetchLimit(size));
+        return KeysetPage.of(rows, size, Transport::getId);
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetPage<TransportDto, Integer> getTransportDtoPage(Integer afterId, int size) {
+        return getTransportPage(afterId, size).map(TransportMapper::toDto);
+    }
+
+    public KeysetPage<Transport, StartDateCursor> getTransportPageByCompanyId(Integer companyId, StartDateCursor after,
+                                                                             int size) {
+        List<Transport> rows = after == null
+                ? transportRepository.findByCompanyIdOrderByStartDateDescIdDesc(companyId, KeysetPage.fetchLimit(size))
+                : transportRepository.findNextByCompanyId(companyId, after.startDate(), after.id(),
+                KeysetPage.fetchLimit(size));
+        return KeysetPage.of(rows, size, t -> new StartDateCursor(t.getStartDate(), t.getId()));
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetPage<TransportDto, StartDateCursor> getTransportDtoPageByCompanyId(Integer companyId,
+                                                                                   StartDateCursor after, int size) {
+        return getTransportPageByCompanyId(companyId, after, size).map(TransportMapper::toDto);
+    }
+
+    public KeysetPage<Transport, DestinationCursor> getTransportPageSortedByDestination(DestinationCursor after, int size) {
+        List<Transport> rows = after == null
+                ? transportRepository.findFirstPageByDestination(KeysetPage.fetchLimit(size))
+                : transportRepository.findNextByDestination(after.endLocation(), after.startDate(), after.id(),
+                KeysetPage.fetchLimit(size));
+        return KeysetPage.of(rows, size, t -> new DestinationCursor(t.getEndLocation(), t.getStartDate(), t.getId()));
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetPage<TransportDto, DestinationCursor> getTransportDtoPageSortedByDestination(DestinationCursor after,
+                                                                                             int size) {
+        return getTransportPageSortedByDestination(after, size).map(TransportMapper::toDto);
     }
 
     public List<Transport> getTransportsByDriverId(Integer driverId) {
         return transportRepository.findByDriverId(driverId);
     }
 
+    @Transactional(readOnly = true)
     public List<TransportDto> getTransportDtosByDriverId(Integer driverId) {
-        return getTransportsByDriverId(driverId).stream().map(TransportMapper::toDto).toList();
+        return transportRepository.findDtosByDriverId(driverId);
     }
 
     public List<Transport> getTransportsByDateRange(Integer companyId, LocalDateTime startDate, LocalDateTime endDate) {
         return transportRepository.findByCompanyIdAndDateRange(companyId, startDate, endDate);
     }
 
+    // The transport carries the version it was read with; if it has changed since, the update fails instead of
+    // overwriting the newer row (retrying cannot help, so that conflict surfaces after the last attempt).
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Transport updateTransport(Transport transport, Integer companyId, Integer clientId,
                                     Integer vehicleId, Integer driverId) throws ValidationException {
         if (transport.getId() == null) {
             throw new ValidationException("Transport ID is required for update");
         }
-        if (!transportRepository.existsById(transport.getId())) {
-            throw new ValidationException("Transport with ID " + transport.getId() + " does not exist");
-        }
-        Company company = companyRepository.findById(companyId)
-                .orElseThrow(() -> new ValidationException("Company with ID " + companyId + " does not exist"));
-        Client client = clientRepository.findById(clientId)
-                .orElseThrow(() -> new ValidationException("Client with ID " + clientId + " does not exist"));
-        Vehicle vehicle = vehicleId != null ? vehicleRepository.findById(vehicleId).orElse(null) : null;
-        Employee driver = driverId != null ? employeeRepository.findById(driverId).orElse(null) : null;
-
-        transport.setCompany(company);
-        transport.setClient(client);
-        transport.setVehicle(vehicle);
-        transport.setDriver(driver);
-
-        validate(transport);
-        Transport saved = transportRepository.save(transport);
-        updateCompanyRevenue(companyId);
-        return saved;
+        return transactionRetry.execute(() -> {
+            Transport existing = transportRepository.findById(transport.getId())
+                    .orElseThrow(() -> new ValidationException("Transport with ID " + transport.getId() + " does not exist"));
+            Integer oldCompanyId = existing.getCompany().getId();
+            attachReferences(transport, companyId, clientId, vehicleId, driverId);
+
+            validate(transport);
+            Transport saved = transportRepository.save(transport);
+            revenueChanged(oldCompanyId, companyId);
+            return saved;
+        });
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public TransportDto updateTransportDto(TransportUpsertDto dto) throws ValidationException {
         if (dto == null || dto.id() == null) {
             throw new ValidationException("Transport ID is required for update");
@@ -166,58 +289,123 @@ public class TransportService {
             throw new ValidationException("Client ID is required");
         }
 
-        Transport transport = getTransportById(dto.id());
-        Company company = companyRepository.findById(dto.companyId())
-                .orElseThrow(() -> new ValidationException("Company with ID " + dto.companyId() + " does not exist"));
-        Client client = clientRepository.findById(dto.clientId())
-                .orElseThrow(() -> new ValidationException("Client with ID " + dto.clientId() + " does not exist"));
-        Vehicle vehicle = dto.vehicleId() != null ? vehicleRepository.findById(dto.vehicleId()).orElse(null) : null;
-        Employee driver = dto.driverId() != null ? employeeRepository.findById(dto.driverId()).orElse(null) : null;
+        return transactionRetry.execute(() -> {
+            Transport transport = getTransportById(dto.id());
+            Integer oldCompanyId = transport.getCompany().getId();
 
-        TransportMapper.applyUpsert(transport, dto);
-        transport.setCompany(company);
-        transport.setClient(client);
-        transport.setVehicle(vehicle);
-        transport.setDriver(driver);
+            TransportMapper.applyUpsert(transport, dto);
+            attachReferences(transport, dto.companyId(), dto.clientId(), dto.vehicleId(), dto.driverId());
 
-        validate(transport);
-        Transport saved = transportRepository.save(transport);
-        updateCompanyRevenue(dto.companyId());
-        return TransportMapper.toDto(saved);
+            validate(transport);
+            Transport saved = transportRepository.save(transport);
+            revenueChanged(oldCompanyId, dto.companyId());
+            return TransportMapper.toDto(saved);
+        });
     }
 
-    public void deleteTransport(Integer id) {
-        Transport transport = transportRepository.findById(id).orElse(null);
-        if (transport != null) {
-            Integer companyId = transport.getCompany().getId();
-            transportRepository.deleteById(id);
-            updateCompanyRevenue(companyId);
+    // One query checks that every referenced row exists and belongs to the transport's company; the associations
+    // are then set to uninitialized references, so none of the rows is loaded just to write its foreign key.
+    private void attachReferences(Transport transport, Integer companyId, Integer clientId,
+                                  Integer vehicleId, Integer driverId) throws ValidationException {
+        if (companyId == null) {
+            throw new ValidationException("Company ID is required");
+        }
+        if (clientId == null) {
+            throw new ValidationException("Client ID is required");
+        }
+        TransportReferenceOwners owners = transportRepository.findReferenceOwners(companyId, clientId, vehicleId, driverId)
+                .orElseThrow(() -> new ValidationException("Company with ID " + companyId + " does not exist"));
+        requireOwner("Client", clientId, owners.clientCompanyId(), companyId);
+        if (vehicleId != null) {
+            requireOwner("Vehicle", vehicleId, owners.vehicleCompanyId(), companyId);
         }
+        if (driverId != null) {
+            requireOwner("Driver", driverId, owners.driverCompanyId(), companyId);
+        }
+
+        transport.setCompany(companyRepository.getReferenceById(companyId));
+        transport.setClient(clientRepository.getReferenceById(clientId));
+        transport.setVehicle(vehicleId != null ? vehicleRepository.getReferenceById(vehicleId) : null);
+        transport.setDriver(driverId != null ? employeeRepository.getReferenceById(driverId) : null);
     }
 
+    static void requireOwner(String label, Integer id, Integer ownerId, Integer companyId) {
+        if (ownerId == null) {
+            throw new ValidationException(label + " with ID " + id + " does not exist");
+        }
+        if (!ownerId.equals(companyId)) {
+            throw new ValidationException(label + " with ID " + id + " belongs to company " + ownerId
+                    + ", not company " + companyId);
+        }
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void deleteTransport(Integer id) {
+        transactionRetry.run(() -> {
+            Transport transport = transportRepository.findById(id).orElse(null);
+            if (transport != null) {
+                Integer companyId = transport.getCompany().getId();
+                transportRepository.delete(transport);
+                revenueChanged(companyId);
+            }
+        });
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Transport markAsPaid(Integer transportId) {
-        Transport transport = getTransportById(transportId);
-        transport.setIsPaid(true);
-        return transportRepository.save(transport);
+        return transactionRetry.execute(() -> {
+            Transport transport = getTransportById(transportId);
+            transport.setIsPaid(true);
+            return transportRepository.save(transport);
+        });
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public TransportDto markAsPaidDto(Integer transportId) {
-        return TransportMapper.toDto(markAsPaid(transportId));
+        return transactionRetry.execute(() -> TransportMapper.toDto(markAsPaid(transportId)));
+    }
+
+    // Bulk payment marking for month-end runs: each call is set-based (an ID list in statements of
+    // MARK_PAID_BATCH_SIZE IDs) and returns how many transports went from unpaid to paid. Revenue is unaffected.
+    public int markAllAsPaid(Collection<Integer> transportIds) {
+        if (transportIds == null || transportIds.isEmpty()) {
+            return 0;
+        }
+        List<Integer> ids = List.copyOf(new TreeSet<>(transportIds));
+        LocalDateTime now = LocalDateTime.now();
+        int marked = 0;
+        for (int from = 0; from < ids.size(); from += MARK_PAID_BATCH_SIZE) {
+            marked += transportRepository.markPaidByIdIn(ids.subList(from, Math.min(from + MARK_PAID_BATCH_SIZE, ids.size())), now);
+        }
+        return marked;
+    }
+
+    public int markClientTransportsAsPaid(Integer clientId) {
+        if (clientId == null) {
+            throw new ValidationException("Client ID is required");
+        }
+        return transportRepository.markPaidByClientId(clientId, LocalDateTime.now());
     }
 
-    private void updateCompanyRevenue(Integer companyId) {
-        Company company = companyRepository.findById(companyId).orElse(null);
-        if (company != null) {
-            List<Transport> transports = transportRepository.findByCompanyId(companyId);
-            BigDecimal totalRevenue = transports.stream()
-                    .map(Transport::getPrice)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-            company.setRevenue(totalRevenue);
-            companyRepository.save(company);
+    public int markCompanyTransportsAsPaid(Integer companyId, LocalDateTime startDate, LocalDateTime endDate) {
+        if (companyId == null) {
+            throw new ValidationException("Company ID is required");
         }
+        if (startDate == null || endDate == null || endDate.isBefore(startDate)) {
+            throw new ValidationException("A start date not after the end date is required");
+        }
+        return transportRepository.markPaidByCompanyIdAndDateRange(companyId, startDate, endDate, LocalDateTime.now());
     }
 
-    private void validate(Transport transport) throws ValidationException {
+    // Company revenue is recomputed after commit by CompanyRevenueRecomputer, which coalesces bursts of writes into
+    // one recompute per company; the write transaction itself never touches the company row.
+    void revenueChanged(Integer... companyIds) {
+        if (companyIds.length > 0) {
+            eventPublisher.publishEvent(new CompanyRevenueChangedEvent(Set.copyOf(Arrays.asList(companyIds))));
+        }
+    }
+
+    void validate(Transport transport) throws ValidationException {
         Set<ConstraintViolation<Transport>> violations = validator.validate(transport);
         if (!violations.isEmpty()) {
             StringBuilder sb = new StringBuilder();
@@ -235,4 +423,20 @@ public class TransportService {
             throw new ValidationException("Passenger count is required for passenger transports");
         }
     }
+
+    // The trimmed text with LIKE wildcards escaped, so "100%" or "A_B" match literally.
+    private static String searchTerm(String term, String label) {
+        if (term == null || term.isBlank()) {
+            throw new ValidationException(label + " search text is required");
+        }
+        return term.trim().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static Limit searchLimit(int limit) {
+        if (limit < 1) {
+            throw new ValidationException("Search limit must be at least 1");
+        }
+        return Limit.of(limit);
+    }
+
 }
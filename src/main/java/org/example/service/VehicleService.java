@@ -1,6 +1,7 @@
 package org.example.service;
 
 import lombok.RequiredArgsConstructor;
+import org.example.dto.KeysetPage;
 import org.example.dto.VehicleDto;
 import org.example.dto.VehicleUpsertDto;
 import org.example.exception.ValidationException;
@@ -10,6 +11,7 @@ import org.example.model.Vehicle;
 import org.example.repository.CompanyRepository;
 import org.example.repository.VehicleRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.validation.ConstraintViolation;
@@ -24,6 +26,7 @@ public class VehicleService {
     private final VehicleRepository vehicleRepository;
     private final CompanyRepository companyRepository;
     private final Validator validator;
+    private final TransactionRetry transactionRetry;
 
     public Vehicle createVehicle(Vehicle vehicle, Integer companyId) throws ValidationException {
         Company company = companyRepository.findById(companyId)
@@ -59,16 +62,41 @@ public class VehicleService {
         return vehicleRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
     public List<VehicleDto> getAllVehicleDtos() {
-        return getAllVehicles().stream().map(VehicleMapper::toDto).toList();
+        return vehicleRepository.findAllDtos();
     }
 
     public List<Vehicle> getVehiclesByCompanyId(Integer companyId) {
         return vehicleRepository.findByCompanyId(companyId);
     }
 
+    @Transactional(readOnly = true)
     public List<VehicleDto> getVehicleDtosByCompanyId(Integer companyId) {
-        return getVehiclesByCompanyId(companyId).stream().map(VehicleMapper::toDto).toList();
+        return vehicleRepository.findDtosByCompanyId(companyId);
+    }
+
+    // Page methods take the previous page's next cursor, or null for the first page.
+    public KeysetPage<Vehicle, Integer> getVehiclePage(Integer afterId, int size) {
+        List<Vehicle> rows = vehicleRepository.findByIdGreaterThanOrderById(afterId == null ? 0 : afterId,
+                KeysetPage.fetchLimit(size));
+        return KeysetPage.of(rows, size, Vehicle::getId);
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetPage<VehicleDto, Integer> getVehicleDtoPage(Integer afterId, int size) {
+        return getVehiclePage(afterId, size).map(VehicleMapper::toDto);
+    }
+
+    public KeysetPage<Vehicle, Integer> getVehiclePageByCompanyId(Integer companyId, Integer afterId, int size) {
+        List<Vehicle> rows = vehicleRepository.findByCompanyIdAndIdGreaterThanOrderById(companyId,
+                afterId == null ? 0 : afterId, KeysetPage.fetchLimit(size));
+        return KeysetPage.of(rows, size, Vehicle::getId);
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetPage<VehicleDto, Integer> getVehicleDtoPageByCompanyId(Integer companyId, Integer afterId, int size) {
+        return getVehiclePageByCompanyId(companyId, afterId, size).map(VehicleMapper::toDto);
     }
 
     public Vehicle updateVehicle(Vehicle vehicle, Integer companyId) throws ValidationException {
@@ -85,6 +113,7 @@ public class VehicleService {
         return vehicleRepository.save(vehicle);
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public VehicleDto updateVehicleDto(VehicleUpsertDto dto) throws ValidationException {
         if (dto == null || dto.id() == null) {
             throw new ValidationException("Vehicle ID is required for update");
@@ -92,13 +121,15 @@ public class VehicleService {
         if (dto.companyId() == null) {
             throw new ValidationException("Company ID is required");
         }
-        Vehicle vehicle = getVehicleById(dto.id());
-        Company company = companyRepository.findById(dto.companyId())
-                .orElseThrow(() -> new ValidationException("Company with ID " + dto.companyId() + " does not exist"));
-        VehicleMapper.applyUpsert(vehicle, dto);
-        vehicle.setCompany(company);
-        validate(vehicle);
-        return VehicleMapper.toDto(vehicleRepository.save(vehicle));
+        return transactionRetry.execute(() -> {
+            Vehicle vehicle = getVehicleById(dto.id());
+            Company company = companyRepository.findById(dto.companyId())
+                    .orElseThrow(() -> new ValidationException("Company with ID " + dto.companyId() + " does not exist"));
+            VehicleMapper.applyUpsert(vehicle, dto);
+            vehicle.setCompany(company);
+            validate(vehicle);
+            return VehicleMapper.toDto(vehicleRepository.save(vehicle));
+        });
     }
 
     public void deleteVehicle(Integer id) {
@@ -0,0 +1,60 @@
+package org.example.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+// Like RowChunker, but first drops the rows an earlier run already committed and hands every chunk the
+// checkpoint that covers it.
+final class CheckpointChunker implements MappedTransportFileReader.PositionedRowConsumer {
+    private final int chunkSize;
+    private final long committedRows;
+    private final BiConsumer<List<TransportFileRow>, TransportImportCheckpoint> chunkConsumer;
+    private long rowsToSkip;
+    private long rows;
+    private long nextOffset = -1;
+    private List<TransportFileRow> chunk;
+
+    CheckpointChunker(int chunkSize, long committedRows, long rowsToSkip,
+                      BiConsumer<List<TransportFileRow>, TransportImportCheckpoint> chunkConsumer) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.chunkSize = chunkSize;
+        this.committedRows = committedRows;
+        this.rowsToSkip = rowsToSkip;
+        this.chunkConsumer = chunkConsumer;
+        this.rows = committedRows;
+        this.chunk = new ArrayList<>(chunkSize);
+    }
+
+    @Override
+    public void accept(TransportFileRow row, long nextOffset) {
+        if (rowsToSkip > 0) {
+            rowsToSkip--;
+            return;
+        }
+        chunk.add(row);
+        rows++;
+        this.nextOffset = nextOffset;
+        if (chunk.size() == chunkSize) {
+            emit();
+        }
+    }
+
+    void flush() {
+        if (!chunk.isEmpty()) {
+            emit();
+        }
+    }
+
+    // Rows handed out by this run, excluding the skipped ones.
+    long rowsRead() {
+        return rows - committedRows;
+    }
+
+    private void emit() {
+        chunkConsumer.accept(chunk, new TransportImportCheckpoint(rows, nextOffset));
+        chunk = new ArrayList<>(chunkSize);
+    }
+}
@@ -0,0 +1,109 @@
+package org.example.util;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Reads transport files through read-only memory mappings. The file is mapped in windows of at most
+ * {@link #WINDOW_BYTES}, each window ending on a line boundary, so files larger than 2 GB work and rows are
+ * parsed straight from the mapped pages without a per-line String.
+ */
+public final class MappedTransportFileReader {
+    static final long WINDOW_BYTES = 256L * 1024 * 1024;
+
+    private MappedTransportFileReader() {}
+
+    // Receives each parsed row together with the offset of the line that follows it.
+    interface PositionedRowConsumer {
+        void accept(TransportFileRow row, long nextOffset);
+    }
+
+    public static long forEachRow(Path path, Consumer<TransportFileRow> rowConsumer) throws IOException {
+        return forEachRow(path, -1, TransportRowRejects.toStderr(), (row, nextOffset) -> rowConsumer.accept(row));
+    }
+
+    // Starts at fromOffset (a line start from an earlier run), or after the header when it is negative.
+    static long forEachRow(Path path, long fromOffset, TransportRowRejects rejects,
+                           PositionedRowConsumer rowConsumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long dataStart = findDataStart(channel);
+            if (dataStart < 0) {
+                return 0;
+            }
+            if (fromOffset > channel.size()) {
+                throw new IOException("Offset " + fromOffset + " is past the end of " + path);
+            }
+            return readRange(channel, Math.max(dataStart, fromOffset), channel.size(), rejects, rowConsumer);
+        }
+    }
+
+    // Returns the offset of the first data line, or -1 when the file does not start with the "ID..." header.
+    static long findDataStart(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size < 2) {
+            return -1;
+        }
+        MappedByteBuffer head = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, WINDOW_BYTES));
+        if (head.get(0) != 'I' || head.get(1) != 'D') {
+            return -1;
+        }
+        for (int i = 0; i < head.limit(); i++) {
+            if (head.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return size;
+    }
+
+    // Parses the lines in [start, end); start must be the beginning of a line and end a line boundary or EOF.
+    static long readRange(FileChannel channel, long start, long end, TransportRowRejects rejects,
+                          PositionedRowConsumer rowConsumer) throws IOException {
+        long rows = 0;
+        long position = start;
+        while (position < end) {
+            long windowEnd = Math.min(end, position + WINDOW_BYTES);
+            int limit = (int) (windowEnd - position);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, limit);
+
+            int lineStart = 0;
+            for (int i = 0; i < limit; i++) {
+                if (window.get(i) == '\n') {
+                    rows += emit(window, lineStart, i, position + i + 1, rejects, rowConsumer);
+                    lineStart = i + 1;
+                }
+            }
+
+            if (windowEnd == end) {
+                if (lineStart < limit) {
+                    rows += emit(window, lineStart, limit, windowEnd, rejects, rowConsumer);
+                }
+                break;
+            }
+            if (lineStart == 0) {
+                throw new IOException("Line at offset " + position + " is longer than " + WINDOW_BYTES + " bytes");
+            }
+            position += lineStart;
+        }
+        return rows;
+    }
+
+    private static int emit(MappedByteBuffer window, int from, int to, long nextOffset, TransportRowRejects rejects,
+                            PositionedRowConsumer rowConsumer) {
+        if (to > from && window.get(to - 1) == '\r') {
+            to--;
+        }
+        if (TransportFileIO.isBlank(window, from, to)) {
+            return 0;
+        }
+        TransportFileRow row = TransportFileIO.parseTransportRow(window, from, to, rejects);
+        if (row == null) {
+            return 0;
+        }
+        rowConsumer.accept(row, nextOffset);
+        return 1;
+    }
+}
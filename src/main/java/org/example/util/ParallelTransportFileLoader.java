@@ -0,0 +1,116 @@
+package org.example.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Splits a transport file into byte ranges that start and end on line boundaries and parses the
+ * ranges concurrently, each through its own memory-mapped windows. Results are concatenated in
+ * segment order, so the returned rows keep the order of the file.
+ */
+public final class ParallelTransportFileLoader {
+    private static final long MIN_SEGMENT_BYTES = 8L * 1024 * 1024;
+    private static final int SEGMENTS_PER_THREAD = 4;
+
+    private ParallelTransportFileLoader() {}
+
+    public static List<TransportFileRow> load(Path path, ForkJoinPool pool, TransportRowRejects rejects) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long dataStart = MappedTransportFileReader.findDataStart(channel);
+            if (dataStart < 0) {
+                return new ArrayList<>();
+            }
+
+            List<Long> bounds = segmentBounds(channel, dataStart, size, pool.getParallelism());
+            List<ForkJoinTask<List<TransportFileRow>>> tasks = new ArrayList<>(bounds.size() - 1);
+            for (int i = 0; i + 1 < bounds.size(); i++) {
+                tasks.add(pool.submit(new SegmentTask(channel, bounds.get(i), bounds.get(i + 1), rejects)));
+            }
+
+            List<TransportFileRow> rows = new ArrayList<>();
+            try {
+                for (ForkJoinTask<List<TransportFileRow>> task : tasks) {
+                    rows.addAll(task.join());
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            return rows;
+        }
+    }
+
+    private static List<Long> segmentBounds(FileChannel channel, long dataStart, long size, int parallelism) throws IOException {
+        long dataBytes = size - dataStart;
+        long segments = Math.max(1, Math.min(dataBytes / MIN_SEGMENT_BYTES, (long) parallelism * SEGMENTS_PER_THREAD));
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(dataStart);
+        for (long i = 1; i < segments; i++) {
+            long target = dataStart + dataBytes * i / segments;
+            long bound = nextLineStart(channel, target - 1, size);
+            if (bound > bounds.get(bounds.size() - 1) && bound < size) {
+                bounds.add(bound);
+            }
+        }
+        bounds.add(size);
+        return bounds;
+    }
+
+    // First offset after the '\n' found at or after position, or size when there is none.
+    private static long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long offset = position;
+        while (offset < size) {
+            buffer.clear();
+            int read = channel.read(buffer, offset);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+        return size;
+    }
+
+    private static final class SegmentTask extends RecursiveTask<List<TransportFileRow>> {
+        private final FileChannel channel;
+        private final long start;
+        private final long end;
+        private final TransportRowRejects rejects;
+
+        private SegmentTask(FileChannel channel, long start, long end, TransportRowRejects rejects) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+            this.rejects = rejects;
+        }
+
+        @Override
+        protected List<TransportFileRow> compute() {
+            try {
+                return parseSegment();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private List<TransportFileRow> parseSegment() throws IOException {
+            List<TransportFileRow> rows = new ArrayList<>();
+            MappedTransportFileReader.readRange(channel, start, end, rejects, (row, nextOffset) -> rows.add(row));
+            return rows;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads bank payment files: one "TransportID|Amount" line per payment, optionally preceded by a header line and
+ * followed by further fields (bank reference etc.) that are ignored. Files ending in .gz or .lz4 are decompressed
+ * on the fly. Lines are streamed, so only one chunk of rows is held at a time.
+ */
+public final class PaymentFileIO {
+    private static final String HEADER_PREFIX = "TransportID";
+
+    private PaymentFileIO() {}
+
+    // Hands the rows to the consumer in chunks of chunkSize and returns the number of unparseable lines.
+    public static long readPaymentChunks(String filePath, int chunkSize,
+                                         Consumer<List<PaymentFileRow>> chunkConsumer) throws IOException {
+        RowChunker<PaymentFileRow> chunker = new RowChunker<>(chunkSize, chunkConsumer);
+        Path path = Paths.get(filePath);
+        long invalid = 0;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(TransportFileCompression.openInput(path), StandardCharsets.UTF_8))) {
+            String line;
+            boolean first = true;
+            while ((line = reader.readLine()) != null) {
+                if (first && line.startsWith(HEADER_PREFIX)) {
+                    first = false;
+                    continue;
+                }
+                first = false;
+                if (line.isBlank()) {
+                    continue;
+                }
+                PaymentFileRow row = parsePaymentRow(line);
+                if (row == null) {
+                    invalid++;
+                } else {
+                    chunker.accept(row);
+                }
+            }
+        }
+        chunker.flush();
+        return invalid;
+    }
+
+    // Returns null when the line has no valid transport ID and amount.
+    static PaymentFileRow parsePaymentRow(String line) {
+        String[] fields = line.split("\\|", 3);
+        if (fields.length < 2) {
+            return null;
+        }
+        try {
+            return new PaymentFileRow(Integer.parseInt(fields[0].trim()), new BigDecimal(fields[1].trim()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package org.example.util;
+
+import java.math.BigDecimal;
+
+public record PaymentFileRow(
+        Integer transportId,
+        BigDecimal amount
+) {
+}
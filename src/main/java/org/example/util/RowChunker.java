@@ -0,0 +1,37 @@
+package org.example.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Groups rows into lists of chunkSize and hands each full list to the chunk consumer; flush() emits the rest.
+final class RowChunker<T> implements Consumer<T> {
+    private final int chunkSize;
+    private final Consumer<List<T>> chunkConsumer;
+    private List<T> chunk;
+
+    RowChunker(int chunkSize, Consumer<List<T>> chunkConsumer) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.chunkSize = chunkSize;
+        this.chunkConsumer = chunkConsumer;
+        this.chunk = new ArrayList<>(chunkSize);
+    }
+
+    @Override
+    public void accept(T row) {
+        chunk.add(row);
+        if (chunk.size() == chunkSize) {
+            chunkConsumer.accept(chunk);
+            chunk = new ArrayList<>(chunkSize);
+        }
+    }
+
+    void flush() {
+        if (!chunk.isEmpty()) {
+            chunkConsumer.accept(chunk);
+            chunk = new ArrayList<>(chunkSize);
+        }
+    }
+}
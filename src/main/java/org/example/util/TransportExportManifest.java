@@ -0,0 +1,52 @@
+package org.example.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.Properties;
+
+// Small properties file in the export directory holding the last exported updatedAt per scope ("all", "company.<id>").
+public final class TransportExportManifest {
+    public static final String FILE_NAME = ".transport-export.properties";
+    private static final String WATERMARK_PREFIX = "watermark.";
+
+    private TransportExportManifest() {}
+
+    public static LocalDateTime readWatermark(String exportPath, String scope) throws IOException {
+        String value = load(locate(exportPath)).getProperty(WATERMARK_PREFIX + scope);
+        return value == null || value.isBlank() ? null : LocalDateTime.parse(value.trim());
+    }
+
+    public static void writeWatermark(String exportPath, String scope, LocalDateTime watermark) throws IOException {
+        Path manifest = locate(exportPath);
+        Properties properties = load(manifest);
+        properties.setProperty(WATERMARK_PREFIX + scope, watermark.toString());
+
+        // Replace the manifest atomically so a crash never leaves a half-written watermark behind.
+        Path temp = manifest.resolveSibling(FILE_NAME + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            properties.store(out, "Transport export watermarks");
+        }
+        Files.move(temp, manifest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static Path locate(String exportPath) {
+        Path parent = Paths.get(exportPath).toAbsolutePath().getParent();
+        return parent == null ? Paths.get(FILE_NAME) : parent.resolve(FILE_NAME);
+    }
+
+    private static Properties load(Path manifest) throws IOException {
+        Properties properties = new Properties();
+        if (Files.exists(manifest)) {
+            try (InputStream in = Files.newInputStream(manifest)) {
+                properties.load(in);
+            }
+        }
+        return properties;
+    }
+}
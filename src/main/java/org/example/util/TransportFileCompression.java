@@ -0,0 +1,79 @@
+package org.example.util;
+
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FrameInputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+import net.jpountz.xxhash.XXHashFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Picks a streaming codec from the file extension: ".gz" (gzip) or ".lz4" (LZ4 frame format, pure-Java codec).
+public final class TransportFileCompression {
+    public static final String GZIP_EXTENSION = ".gz";
+    public static final String LZ4_EXTENSION = ".lz4";
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private TransportFileCompression() {}
+
+    public static boolean isCompressed(String filePath) {
+        String name = filePath.toLowerCase();
+        return name.endsWith(GZIP_EXTENSION) || name.endsWith(LZ4_EXTENSION);
+    }
+
+    // File name without the compression extension, e.g. "transports.tsnap.gz" -> "transports.tsnap".
+    public static String stripExtension(String filePath) {
+        String name = filePath.toLowerCase();
+        if (name.endsWith(GZIP_EXTENSION)) {
+            return filePath.substring(0, filePath.length() - GZIP_EXTENSION.length());
+        }
+        if (name.endsWith(LZ4_EXTENSION)) {
+            return filePath.substring(0, filePath.length() - LZ4_EXTENSION.length());
+        }
+        return filePath;
+    }
+
+    public static OutputStream openOutput(Path path) throws IOException {
+        OutputStream out = Files.newOutputStream(path);
+        String name = path.getFileName().toString().toLowerCase();
+        try {
+            if (name.endsWith(GZIP_EXTENSION)) {
+                return new GZIPOutputStream(out, BUFFER_BYTES);
+            }
+            if (name.endsWith(LZ4_EXTENSION)) {
+                return new LZ4FrameOutputStream(out, LZ4FrameOutputStream.BLOCKSIZE.SIZE_4MB, -1L,
+                        LZ4Factory.fastestJavaInstance().fastCompressor(),
+                        XXHashFactory.fastestJavaInstance().hash32(),
+                        LZ4FrameOutputStream.FLG.Bits.BLOCK_INDEPENDENCE);
+            }
+        } catch (IOException e) {
+            out.close();
+            throw e;
+        }
+        return out;
+    }
+
+    public static InputStream openInput(Path path) throws IOException {
+        InputStream in = Files.newInputStream(path);
+        String name = path.getFileName().toString().toLowerCase();
+        try {
+            if (name.endsWith(GZIP_EXTENSION)) {
+                return new GZIPInputStream(in, BUFFER_BYTES);
+            }
+            if (name.endsWith(LZ4_EXTENSION)) {
+                // Safe decompressor: files come from partner sites, so no Unsafe-based decoding of untrusted input.
+                return new LZ4FrameInputStream(in, LZ4Factory.safeInstance().safeDecompressor(),
+                        XXHashFactory.fastestJavaInstance().hash32());
+            }
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+        return in;
+    }
+}
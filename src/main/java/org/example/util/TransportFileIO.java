@@ -1,25 +1,32 @@
 package org.example.util;
 
 import org.example.dto.TransportDto;
+import org.example.mapper.TransportMapper;
 import org.example.model.Transport;
 
 import java.io.*;
-import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public class TransportFileIO {
     private static final String DELIMITER = "|";
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String HEADER = "ID|CompanyID|ClientID|VehicleID|DriverID|StartLocation|EndLocation|StartDate|EndDate|TransportType|CargoDescription|CargoWeight|PassengerCount|Price|IsPaid";
 
     public static String serializeTransports(List<Transport> transports) {
         StringBuilder sb = new StringBuilder();
-        sb.append("ID|CompanyID|ClientID|VehicleID|DriverID|StartLocation|EndLocation|StartDate|EndDate|TransportType|CargoDescription|CargoWeight|PassengerCount|Price|IsPaid");
+        sb.append(HEADER);
         sb.append(System.lineSeparator());
         for (Transport transport : transports) {
             sb.append(formatTransport(transport)).append(System.lineSeparator());
@@ -29,7 +36,7 @@ public class TransportFileIO {
 
     public static String serializeTransportDtos(List<TransportDto> transports) {
         StringBuilder sb = new StringBuilder();
-        sb.append("ID|CompanyID|ClientID|VehicleID|DriverID|StartLocation|EndLocation|StartDate|EndDate|TransportType|CargoDescription|CargoWeight|PassengerCount|Price|IsPaid");
+        sb.append(HEADER);
         sb.append(System.lineSeparator());
         for (TransportDto transport : transports) {
             sb.append(formatTransportDto(transport)).append(System.lineSeparator());
@@ -38,16 +45,32 @@ public class TransportFileIO {
     }
 
     public static void saveTransportsToFile(List<Transport> transports, String filePath) throws IOException {
-        Path path = Paths.get(filePath);
-        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
-            writer.write(serializeTransports(transports));
-        }
+        writeTransportDtosToFile(transports.stream().map(TransportMapper::toDto), filePath);
     }
 
     public static void saveTransportDtosToFile(List<TransportDto> transports, String filePath) throws IOException {
+        writeTransportDtosToFile(transports.stream(), filePath);
+    }
+
+    // Streams rows to the file; the format follows the name (".tsnap" snapshot or text, optionally ".gz"/".lz4").
+    public static long writeTransportDtosToFile(Stream<TransportDto> transports, String filePath) throws IOException {
         Path path = Paths.get(filePath);
-        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
-            writer.write(serializeTransportDtos(transports));
+        try (OutputStream out = TransportFileCompression.openOutput(path)) {
+            if (isSnapshotFile(filePath)) {
+                return TransportSnapshotIO.write(transports.iterator(), out);
+            }
+            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write(HEADER);
+            writer.newLine();
+            long written = 0;
+            Iterator<TransportDto> iterator = transports.iterator();
+            while (iterator.hasNext()) {
+                writer.write(formatTransportDto(iterator.next()));
+                writer.newLine();
+                written++;
+            }
+            writer.flush();
+            return written;
         }
     }
 
@@ -74,6 +97,10 @@ public class TransportFileIO {
     }
 
     public static List<TransportFileRow> loadTransportsFromFile(String filePath) throws IOException {
+        return loadTransportsFromFile(filePath, TransportRowRejects.toStderr());
+    }
+
+    public static List<TransportFileRow> loadTransportsFromFile(String filePath, TransportRowRejects rejects) throws IOException {
         List<TransportFileRow> transports = new ArrayList<>();
         Path path = Paths.get(filePath);
         
@@ -81,23 +108,151 @@ public class TransportFileIO {
             return transports;
         }
         
-        try (BufferedReader reader = Files.newBufferedReader(path)) {
+        forEachStreamedRow(path, rejects, transports::add);
+        return transports;
+    }
+
+    public static List<TransportFileRow> loadTransportsFromFileMapped(String filePath) throws IOException {
+        if (!isPlainTextFile(filePath)) {
+            return loadTransportsFromFile(filePath);
+        }
+        List<TransportFileRow> transports = new ArrayList<>();
+        Path path = Paths.get(filePath);
+        if (!Files.exists(path)) {
+            return transports;
+        }
+        MappedTransportFileReader.forEachRow(path, transports::add);
+        return transports;
+    }
+
+    public static List<TransportFileRow> loadTransportsFromFileParallel(String filePath) throws IOException {
+        return loadTransportsFromFileParallel(filePath, TransportRowRejects.toStderr());
+    }
+
+    public static List<TransportFileRow> loadTransportsFromFileParallel(String filePath, TransportRowRejects rejects) throws IOException {
+        return loadTransportsFromFileParallel(filePath, ForkJoinPool.commonPool(), rejects);
+    }
+
+    public static List<TransportFileRow> loadTransportsFromFileParallel(String filePath, ForkJoinPool pool,
+                                                                        TransportRowRejects rejects) throws IOException {
+        if (!isPlainTextFile(filePath)) {
+            return loadTransportsFromFile(filePath, rejects);
+        }
+        Path path = Paths.get(filePath);
+        if (!Files.exists(path)) {
+            return new ArrayList<>();
+        }
+        return ParallelTransportFileLoader.load(path, pool, rejects);
+    }
+
+    public static long readTransportsInChunks(String filePath, int chunkSize,
+                                              Consumer<List<TransportFileRow>> chunkConsumer) throws IOException {
+        RowChunker<TransportFileRow> chunker = new RowChunker<>(chunkSize, chunkConsumer);
+        Path path = Paths.get(filePath);
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        long total = forEachStreamedRow(path, TransportRowRejects.toStderr(), chunker);
+        chunker.flush();
+        return total;
+    }
+
+    public static long readTransportsInChunksMapped(String filePath, int chunkSize,
+                                                    Consumer<List<TransportFileRow>> chunkConsumer) throws IOException {
+        if (!isPlainTextFile(filePath)) {
+            return readTransportsInChunks(filePath, chunkSize, chunkConsumer);
+        }
+        RowChunker<TransportFileRow> chunker = new RowChunker<>(chunkSize, chunkConsumer);
+        Path path = Paths.get(filePath);
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        long total = MappedTransportFileReader.forEachRow(path, chunker);
+        chunker.flush();
+        return total;
+    }
+
+    // Import entry point: plain text files are memory-mapped, snapshots and compressed files are streamed.
+    // With a checkpoint, rows it covers are not handed out again: plain text seeks to its offset, other formats
+    // re-read and skip them. Every chunk comes with the checkpoint to store once the chunk is committed.
+    public static long readImportChunks(String filePath, int chunkSize, TransportImportCheckpoint resumeFrom,
+                                        TransportRowRejects rejects,
+                                        BiConsumer<List<TransportFileRow>, TransportImportCheckpoint> chunkConsumer) throws IOException {
+        Path path = Paths.get(filePath);
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        long committedRows = resumeFrom == null ? 0 : resumeFrom.rows();
+        boolean seek = canResumeBySeeking(filePath, resumeFrom);
+        CheckpointChunker chunker = new CheckpointChunker(chunkSize, committedRows, seek ? 0 : committedRows, chunkConsumer);
+        if (isPlainTextFile(filePath)) {
+            MappedTransportFileReader.forEachRow(path, seek ? resumeFrom.offset() : -1, rejects, chunker);
+        } else {
+            forEachStreamedRow(path, rejects, row -> chunker.accept(row, -1));
+        }
+        chunker.flush();
+        return chunker.rowsRead();
+    }
+
+    // True when a resumed read continues after the checkpoint's offset, so lines before it are not read again.
+    public static boolean canResumeBySeeking(String filePath, TransportImportCheckpoint checkpoint) {
+        return checkpoint != null && checkpoint.offset() >= 0 && isPlainTextFile(filePath);
+    }
+
+    public static boolean isSnapshotFile(String filePath) {
+        return TransportFileCompression.stripExtension(filePath).toLowerCase().endsWith(TransportSnapshotIO.FILE_EXTENSION);
+    }
+
+    // Uncompressed text, the only format that supports the mapped and parallel readers.
+    public static boolean isPlainTextFile(String filePath) {
+        return !TransportFileCompression.isCompressed(filePath) && !isSnapshotFile(filePath);
+    }
+
+    private static long forEachStreamedRow(Path path, TransportRowRejects rejects,
+                                           Consumer<TransportFileRow> rowConsumer) throws IOException {
+        try (InputStream in = TransportFileCompression.openInput(path)) {
+            if (isSnapshotFile(path.toString())) {
+                return TransportSnapshotIO.read(in, dto -> rowConsumer.accept(toFileRow(dto)));
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
             String line = reader.readLine();
             if (line == null || !line.startsWith("ID")) {
-                return transports;
+                return 0;
             }
-            
+
+            long total = 0;
             while ((line = reader.readLine()) != null) {
                 if (line.trim().isEmpty()) {
                     continue;
                 }
-                TransportFileRow row = parseTransportRow(line);
+                TransportFileRow row = parseTransportRow(line, rejects);
                 if (row != null) {
-                    transports.add(row);
+                    rowConsumer.accept(row);
+                    total++;
                 }
             }
+            return total;
         }
-        return transports;
+    }
+
+    private static TransportFileRow toFileRow(TransportDto transport) {
+        return new TransportFileRow(
+                transport.id(),
+                transport.companyId(),
+                transport.clientId(),
+                transport.vehicleId(),
+                transport.driverId(),
+                transport.startLocation(),
+                transport.endLocation(),
+                transport.startDate(),
+                transport.endDate(),
+                transport.transportType(),
+                transport.cargoDescription(),
+                transport.cargoWeight(),
+                transport.passengerCount(),
+                transport.price(),
+                transport.isPaid()
+        );
     }
 
     private static String formatTransport(Transport transport) {
@@ -140,53 +295,59 @@ public class TransportFileIO {
         return sb.toString();
     }
 
+    static String formatTransportRow(TransportFileRow row) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(row.id() != null ? row.id() : "").append(DELIMITER);
+        sb.append(row.companyId() != null ? row.companyId() : "").append(DELIMITER);
+        sb.append(row.clientId() != null ? row.clientId() : "").append(DELIMITER);
+        sb.append(row.vehicleId() != null ? row.vehicleId() : "").append(DELIMITER);
+        sb.append(row.driverId() != null ? row.driverId() : "").append(DELIMITER);
+        sb.append(row.startLocation() != null ? row.startLocation() : "").append(DELIMITER);
+        sb.append(row.endLocation() != null ? row.endLocation() : "").append(DELIMITER);
+        sb.append(row.startDate() != null ? row.startDate().format(DATE_FORMATTER) : "").append(DELIMITER);
+        sb.append(row.endDate() != null ? row.endDate().format(DATE_FORMATTER) : "").append(DELIMITER);
+        sb.append(row.transportType() != null ? row.transportType() : "").append(DELIMITER);
+        sb.append(row.cargoDescription() != null ? row.cargoDescription() : "").append(DELIMITER);
+        sb.append(row.cargoWeight() != null ? row.cargoWeight() : "").append(DELIMITER);
+        sb.append(row.passengerCount() != null ? row.passengerCount() : "").append(DELIMITER);
+        sb.append(row.price() != null ? row.price() : "").append(DELIMITER);
+        sb.append(row.isPaid() != null ? row.isPaid() : "");
+        return sb.toString();
+    }
+
     public static TransportFileRow parseTransportRow(String line) {
+        return parseTransportRow(line, TransportRowRejects.toStderr());
+    }
+
+    // Returns null for a rejected line after reporting it to the reject channel.
+    public static TransportFileRow parseTransportRow(String line, TransportRowRejects rejects) {
         try {
-            String[] parts = line.split("\\" + DELIMITER, -1);
-            if (parts.length < 15) {
-                return null;
-            }
+            byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+            return TransportRowScanner.parse(ByteBuffer.wrap(bytes), 0, bytes.length);
+        } catch (RuntimeException e) {
+            rejects.reject(TransportRejectReason.of(e), e.getMessage(), line);
+            return null;
+        }
+    }
 
-            Integer companyId = parts[1].isEmpty() ? null : Integer.parseInt(parts[1]);
-            Integer clientId = parts[2].isEmpty() ? null : Integer.parseInt(parts[2]);
-            Integer vehicleId = parts[3].isEmpty() ? null : Integer.parseInt(parts[3]);
-            Integer driverId = parts[4].isEmpty() ? null : Integer.parseInt(parts[4]);
-
-            String startLocation = parts[5];
-            String endLocation = parts[6];
-
-            LocalDateTime startDate = parts[7].isEmpty() ? null : LocalDateTime.parse(parts[7], DATE_FORMATTER);
-            LocalDateTime endDate = parts[8].isEmpty() ? null : LocalDateTime.parse(parts[8], DATE_FORMATTER);
-
-            String transportType = parts[9];
-            String cargoDescription = parts[10];
-            BigDecimal cargoWeight = parts[11].isEmpty() ? null : new BigDecimal(parts[11]);
-            Integer passengerCount = parts[12].isEmpty() ? null : Integer.parseInt(parts[12]);
-            BigDecimal price = parts[13].isEmpty() ? null : new BigDecimal(parts[13]);
-            Boolean isPaid = parts[14].isEmpty() ? null : Boolean.parseBoolean(parts[14]);
-
-            return new TransportFileRow(
-                    companyId,
-                    clientId,
-                    vehicleId,
-                    driverId,
-                    startLocation,
-                    endLocation,
-                    startDate,
-                    endDate,
-                    transportType,
-                    cargoDescription,
-                    cargoWeight,
-                    passengerCount,
-                    price,
-                    isPaid
-            );
-        } catch (Exception e) {
-            System.err.println("Error parsing transport line: " + line);
-            e.printStackTrace();
+    static TransportFileRow parseTransportRow(ByteBuffer buffer, int from, int to, TransportRowRejects rejects) {
+        try {
+            return TransportRowScanner.parse(buffer, from, to);
+        } catch (RuntimeException e) {
+            rejects.reject(TransportRejectReason.of(e), e.getMessage(), TransportRowScanner.decode(buffer, from, to));
             return null;
         }
     }
+
+    // Same check as line.trim().isEmpty() for a UTF-8 encoded line.
+    static boolean isBlank(ByteBuffer buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if ((buffer.get(i) & 0xFF) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
 }
 
 
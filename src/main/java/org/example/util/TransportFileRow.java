@@ -4,6 +4,7 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 public record TransportFileRow(
+        Integer id,
         Integer companyId,
         Integer clientId,
         Integer vehicleId,
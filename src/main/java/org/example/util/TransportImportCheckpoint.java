@@ -0,0 +1,68 @@
+package org.example.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * Progress of an import, kept in a "&lt;file&gt;.checkpoint" sidecar after every committed chunk.
+ * {@code rows} counts the rows committed so far; {@code offset} is the byte offset of the next line in a plain text
+ * file, or -1 when the format can only be resumed by skipping {@code rows} rows.
+ * The sidecar also records the file's size and modification time and is ignored once the file changes.
+ */
+public record TransportImportCheckpoint(long rows, long offset) {
+    public static final String FILE_SUFFIX = ".checkpoint";
+
+    // Returns null when there is no checkpoint or it belongs to a different version of the file.
+    public static TransportImportCheckpoint load(String filePath) throws IOException {
+        Path file = Paths.get(filePath);
+        Path sidecar = sidecar(filePath);
+        if (!Files.exists(sidecar) || !Files.exists(file)) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(sidecar)) {
+            properties.load(in);
+        }
+        try {
+            if (Long.parseLong(properties.getProperty("size")) != Files.size(file)
+                    || Long.parseLong(properties.getProperty("modified")) != Files.getLastModifiedTime(file).toMillis()) {
+                return null;
+            }
+            return new TransportImportCheckpoint(
+                    Long.parseLong(properties.getProperty("rows")),
+                    Long.parseLong(properties.getProperty("offset")));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public void save(String filePath) throws IOException {
+        Path file = Paths.get(filePath);
+        Properties properties = new Properties();
+        properties.setProperty("rows", Long.toString(rows));
+        properties.setProperty("offset", Long.toString(offset));
+        properties.setProperty("size", Long.toString(Files.size(file)));
+        properties.setProperty("modified", Long.toString(Files.getLastModifiedTime(file).toMillis()));
+
+        Path sidecar = sidecar(filePath);
+        Path temp = sidecar.resolveSibling(sidecar.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            properties.store(out, "Transport import checkpoint");
+        }
+        Files.move(temp, sidecar, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static void delete(String filePath) throws IOException {
+        Files.deleteIfExists(sidecar(filePath));
+    }
+
+    private static Path sidecar(String filePath) {
+        return Paths.get(filePath + FILE_SUFFIX);
+    }
+}
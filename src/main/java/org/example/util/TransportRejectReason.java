@@ -0,0 +1,25 @@
+package org.example.util;
+
+import java.time.DateTimeException;
+
+public enum TransportRejectReason {
+    MISSING_FIELDS,
+    INVALID_NUMBER,
+    INVALID_DATE,
+    INVALID_VALUE,
+    INVALID_REFERENCE,
+    DUPLICATE_IMPORT_KEY;
+
+    static TransportRejectReason of(RuntimeException e) {
+        if (e instanceof TransportRowRejectedException rejected) {
+            return rejected.getReason();
+        }
+        if (e instanceof NumberFormatException) {
+            return INVALID_NUMBER;
+        }
+        if (e instanceof DateTimeException) {
+            return INVALID_DATE;
+        }
+        return INVALID_VALUE;
+    }
+}
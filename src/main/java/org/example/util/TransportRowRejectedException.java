@@ -0,0 +1,15 @@
+package org.example.util;
+
+// Thrown by the scanner for lines it can reject on its own; stackless, since dirty files produce it per line.
+public class TransportRowRejectedException extends RuntimeException {
+    private final TransportRejectReason reason;
+
+    public TransportRowRejectedException(TransportRejectReason reason, String message) {
+        super(message, null, false, false);
+        this.reason = reason;
+    }
+
+    public TransportRejectReason getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,108 @@
+package org.example.util;
+
+import org.example.exception.ValidationException;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Error channel for lines that cannot be parsed. Rejects are counted per reason and either written to a
+ * reject file ("REASON&lt;TAB&gt;message&lt;TAB&gt;original line") or reported as one line on stderr.
+ * Once more than {@code maxRejects} lines are rejected the read is aborted with a {@link ValidationException};
+ * a negative budget never aborts. Safe to share between the parallel loader's threads.
+ */
+public final class TransportRowRejects implements Closeable {
+    public static final String FILE_SUFFIX = ".rejects";
+    private static final TransportRowRejects STDERR = new TransportRowRejects(null, -1);
+
+    private final Path rejectFile;
+    private final long maxRejects;
+    private final Map<TransportRejectReason, Long> counts = new EnumMap<>(TransportRejectReason.class);
+    private long total;
+    private BufferedWriter writer;
+
+    private TransportRowRejects(Path rejectFile, long maxRejects) {
+        this.rejectFile = rejectFile;
+        this.maxRejects = maxRejects;
+    }
+
+    // The one stderr channel behind every read that is not given a sink: it never aborts and counts process-wide.
+    public static TransportRowRejects toStderr() {
+        return STDERR;
+    }
+
+    // Writes to "<importFile>.rejects"; the file is created on the first reject, append keeps an earlier run's lines.
+    public static TransportRowRejects toFile(String importFilePath, boolean append, long maxRejects) throws IOException {
+        Path rejectFile = Paths.get(importFilePath + FILE_SUFFIX);
+        if (!append) {
+            Files.deleteIfExists(rejectFile);
+        }
+        return new TransportRowRejects(rejectFile, maxRejects);
+    }
+
+    synchronized void reject(TransportRejectReason reason, String message, String line) {
+        counts.merge(reason, 1L, Long::sum);
+        total++;
+        if (rejectFile == null) {
+            System.err.println("Rejected transport line (" + reason + ": " + message + "): " + line);
+        } else {
+            write(reason, message, line);
+        }
+        if (maxRejects >= 0 && total > maxRejects) {
+            throw new ValidationException("Import aborted: more than " + maxRejects + " rejected line(s)"
+                    + (rejectFile != null ? ", see " + rejectFile : ""));
+        }
+    }
+
+    // For rows that parsed but cannot be imported; the line is rebuilt from the row in the file format.
+    public void reject(TransportRejectReason reason, String message, TransportFileRow row) {
+        reject(reason, message, TransportFileIO.formatTransportRow(row));
+    }
+
+    public synchronized long total() {
+        return total;
+    }
+
+    public synchronized Map<TransportRejectReason, Long> counts() {
+        return Collections.unmodifiableMap(new EnumMap<>(counts));
+    }
+
+    public Path getRejectFile() {
+        return rejectFile;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    private void write(TransportRejectReason reason, String message, String line) {
+        try {
+            if (writer == null) {
+                writer = Files.newBufferedWriter(rejectFile, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            writer.write(reason.name());
+            writer.write('\t');
+            writer.write(message == null ? "" : message.replace('\t', ' ').replace('\n', ' ').replace('\r', ' '));
+            writer.write('\t');
+            writer.write(line);
+            writer.newLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
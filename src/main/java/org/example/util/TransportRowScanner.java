@@ -0,0 +1,280 @@
+package org.example.util;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Hand-rolled parser for one pipe-delimited transport line held in a byte buffer (UTF-8).
+ * Canonical values (plain integers, "yyyy-MM-dd HH:mm:ss" timestamps, plain decimals, booleans) are decoded
+ * straight from the bytes; anything else falls back to the JDK parsers so the accepted input and the resulting
+ * values are the same as {@link TransportFileIO#parseTransportRow(String)} with String.split.
+ * Lines with fewer than 15 fields, and integers containing ASCII non-digits, are rejected with a stackless
+ * {@link TransportRowRejectedException}; other malformed values throw the same exceptions the JDK parsers would.
+ */
+public final class TransportRowScanner {
+    private static final byte DELIMITER = '|';
+    private static final int MAX_FAST_INT_DIGITS = 9;
+    private static final int MAX_FAST_DECIMAL_DIGITS = 18;
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[256]);
+    private static final TransportRowRejectedException MISSING_FIELDS =
+            new TransportRowRejectedException(TransportRejectReason.MISSING_FIELDS, "Expected 15 fields");
+
+    private TransportRowScanner() {}
+
+    // Parses the line in buffer[from, to) (without the line terminator).
+    public static TransportFileRow parse(ByteBuffer buffer, int from, int to) {
+        int start = from;
+        int end = fieldEnd(buffer, start, to);
+        if (end == to) throw MISSING_FIELDS;
+        Integer id = parseId(buffer, start, end);
+
+        start = end + 1;
+        end = fieldEnd(buffer, start, to);
+        if (end == to) throw MISSING_FIELDS;
+        Integer companyId = parseInteger(buffer, start, end);
+
+        start = end + 1;
+        end = fieldEnd(buffer, start, to);
+        if (end == to) throw MISSING_FIELDS;
+        Integer clientId = parseInteger(buffer, start, end);
+
+        start = end + 1;
+        end = fieldEnd(buffer, start, to);
+        if (end == to) throw MISSING_FIELDS;
+        Integer vehicleId = parseInteger(buffer, start, end);
+
+        start = end + 1;
+        end = fieldEnd(buffer, start, to);
+        if (end == to) throw MISSING_FIELDS;
+        Integer driverId = parseInteger(buffer, start, end);
+
+        start = end + 1;
+        end = fieldEnd(buffer, start, to);
+        if (end == to) throw MISSING_FIELDS;
+        String startLocation = decode(buffer, start, end);
+
+        start = end + 1;
+        end = fieldEnd(buffer, start, to);
+        if (end == to) throw MISSING_FIELDS;
+        String endLocation = decode(buffer, start, end);
+
+        start = end + 1;
+        end = fieldEnd(buffer, start, to);
+        if (end == to) throw MISSING_FIELDS;
+        LocalDateTime startDate = parseDateTime(buffer, start, end);
+
+        start = end + 1;
+        end = fieldEnd(buffer, start, to);
+        if (end == to) throw MISSING_FIELDS;
+        LocalDateTime endDate = parseDateTime(buffer, start, end);
+
+        start = end + 1;
+        end = fieldEnd(buffer, start, to);
+        if (end == to) throw MISSING_FIELDS;
+        String transportType = decode(buffer, start, end);
+
+        start = end + 1;
+        end = fieldEnd(buffer, start, to);
+        if (end == to) throw MISSING_FIELDS;
+        String cargoDescription = decode(buffer, start, end);
+
+        start = end + 1;
+        end = fieldEnd(buffer, start, to);
+        if (end == to) throw MISSING_FIELDS;
+        BigDecimal cargoWeight = parseDecimal(buffer, start, end);
+
+        start = end + 1;
+        end = fieldEnd(buffer, start, to);
+        if (end == to) throw MISSING_FIELDS;
+        Integer passengerCount = parseInteger(buffer, start, end);
+
+        start = end + 1;
+        end = fieldEnd(buffer, start, to);
+        if (end == to) throw MISSING_FIELDS;
+        BigDecimal price = parseDecimal(buffer, start, end);
+
+        // Last field: anything after a further delimiter is ignored, like the split-based parser.
+        start = end + 1;
+        end = fieldEnd(buffer, start, to);
+        Boolean isPaid = parseBoolean(buffer, start, end);
+
+        return new TransportFileRow(
+                id,
+                companyId,
+                clientId,
+                vehicleId,
+                driverId,
+                startLocation,
+                endLocation,
+                startDate,
+                endDate,
+                transportType,
+                cargoDescription,
+                cargoWeight,
+                passengerCount,
+                price,
+                isPaid
+        );
+    }
+
+    static String decode(ByteBuffer buffer, int from, int to) {
+        int length = to - from;
+        if (length == 0) {
+            return "";
+        }
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + from, length, StandardCharsets.UTF_8);
+        }
+        byte[] scratch = SCRATCH.get();
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+            SCRATCH.set(scratch);
+        }
+        buffer.get(from, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static int fieldEnd(ByteBuffer buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == DELIMITER) {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    // The ID only keys the import upsert, so a malformed one falls back to the natural key instead of rejecting the row.
+    private static Integer parseId(ByteBuffer buffer, int from, int to) {
+        try {
+            return parseInteger(buffer, from, to);
+        } catch (NumberFormatException | TransportRowRejectedException e) {
+            return null;
+        }
+    }
+
+    private static Integer parseInteger(ByteBuffer buffer, int from, int to) {
+        if (from == to) {
+            return null;
+        }
+        int i = from;
+        boolean negative = false;
+        byte first = buffer.get(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+        }
+        int digits = to - i;
+        if (digits == 0 || digits > MAX_FAST_INT_DIGITS) {
+            return Integer.parseInt(decode(buffer, from, to));
+        }
+        int value = 0;
+        for (; i < to; i++) {
+            byte b = buffer.get(i);
+            int d = b - '0';
+            if (d < 0 || d > 9) {
+                if (b >= 0) {
+                    // ASCII non-digit: Integer.parseInt would fail too, without paying for its stack trace.
+                    throw new TransportRowRejectedException(TransportRejectReason.INVALID_NUMBER,
+                            "For input string: \"" + decode(buffer, from, to) + "\"");
+                }
+                return Integer.parseInt(decode(buffer, from, to));
+            }
+            value = value * 10 + d;
+        }
+        return negative ? -value : value;
+    }
+
+    private static BigDecimal parseDecimal(ByteBuffer buffer, int from, int to) {
+        if (from == to) {
+            return null;
+        }
+        int i = from;
+        boolean negative = false;
+        byte first = buffer.get(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+        }
+        long unscaled = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean fraction = false;
+        for (; i < to; i++) {
+            byte b = buffer.get(i);
+            if (b == '.' && !fraction) {
+                fraction = true;
+                continue;
+            }
+            int d = b - '0';
+            if (d < 0 || d > 9 || ++digits > MAX_FAST_DECIMAL_DIGITS) {
+                return new BigDecimal(decode(buffer, from, to));
+            }
+            unscaled = unscaled * 10 + d;
+            if (fraction) {
+                scale++;
+            }
+        }
+        if (digits == 0) {
+            return new BigDecimal(decode(buffer, from, to));
+        }
+        return BigDecimal.valueOf(negative ? -unscaled : unscaled, scale);
+    }
+
+    private static LocalDateTime parseDateTime(ByteBuffer buffer, int from, int to) {
+        if (from == to) {
+            return null;
+        }
+        if (to - from == 19
+                && buffer.get(from + 4) == '-' && buffer.get(from + 7) == '-' && buffer.get(from + 10) == ' '
+                && buffer.get(from + 13) == ':' && buffer.get(from + 16) == ':') {
+            int year = digits(buffer, from, 4);
+            int month = digits(buffer, from + 5, 2);
+            int day = digits(buffer, from + 8, 2);
+            int hour = digits(buffer, from + 11, 2);
+            int minute = digits(buffer, from + 14, 2);
+            int second = digits(buffer, from + 17, 2);
+            if (year > 0 && month >= 1 && month <= 12 && day >= 1 && day <= daysInMonth(year, month)
+                    && hour >= 0 && hour <= 23 && minute >= 0 && minute <= 59 && second >= 0 && second <= 59) {
+                return LocalDateTime.of(year, month, day, hour, minute, second);
+            }
+        }
+        // Non-canonical input keeps the formatter's exact (SMART resolver) behaviour.
+        return LocalDateTime.parse(decode(buffer, from, to), DATE_FORMATTER);
+    }
+
+    // Returns -1 when any of the bytes is not a digit.
+    private static int digits(ByteBuffer buffer, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int d = buffer.get(i) - '0';
+            if (d < 0 || d > 9) {
+                return -1;
+            }
+            value = value * 10 + d;
+        }
+        return value;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    private static Boolean parseBoolean(ByteBuffer buffer, int from, int to) {
+        if (from == to) {
+            return null;
+        }
+        return to - from == 4
+                && (buffer.get(from) | 0x20) == 't'
+                && (buffer.get(from + 1) | 0x20) == 'r'
+                && (buffer.get(from + 2) | 0x20) == 'u'
+                && (buffer.get(from + 3) | 0x20) == 'e';
+    }
+}
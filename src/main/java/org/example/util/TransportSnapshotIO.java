@@ -0,0 +1,431 @@
+package org.example.util;
+
+import org.example.dto.TransportDto;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Versioned binary snapshot of transports, stored as column blocks of up to {@link #BLOCK_ROWS} rows.
+ * <p>
+ * Layout: magic "TCSN", format version byte, then blocks. A block is its row count (varint), the dictionary
+ * entries first used in that block, and one column after the other. A zero row count ends the file, followed by
+ * the total row count. Locations and transport types are dictionary encoded, IDs and counts are zig-zag varints,
+ * dates are epoch seconds (UTC) delta encoded per column plus nanos, and price/cargo weight are fixed-point
+ * longs at the database scale of 2. Nullable values use 0 for null and value + 1 otherwise.
+ * <p>
+ * Money values therefore read back at scale 2, as they come from the database: 10 and 10.5 are written fine but
+ * read back as 10.00 and 10.50 (equal by compareTo, not by equals). Values with more than 2 significant decimals
+ * are rejected with an {@link IllegalArgumentException}, never rounded.
+ */
+public final class TransportSnapshotIO {
+    public static final String FILE_EXTENSION = ".tsnap";
+    static final int BLOCK_ROWS = 4096;
+    private static final byte[] MAGIC = {'T', 'C', 'S', 'N'};
+    private static final int VERSION = 1;
+    private static final int MONEY_SCALE = 2;
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private TransportSnapshotIO() {}
+
+    public static long write(Iterator<TransportDto> transports, Path path) throws IOException {
+        try (OutputStream out = Files.newOutputStream(path)) {
+            return write(transports, out);
+        }
+    }
+
+    public static long write(Iterator<TransportDto> transports, OutputStream target) throws IOException {
+        Encoder out = new Encoder(target);
+        out.write(MAGIC);
+        out.writeByte(VERSION);
+
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<TransportDto> block = new ArrayList<>(BLOCK_ROWS);
+        long total = 0;
+        while (transports.hasNext()) {
+            block.add(transports.next());
+            if (block.size() == BLOCK_ROWS) {
+                writeBlock(out, block, dictionary);
+                total += block.size();
+                block.clear();
+            }
+        }
+        if (!block.isEmpty()) {
+            writeBlock(out, block, dictionary);
+            total += block.size();
+        }
+        out.writeVarLong(0);
+        out.writeVarLong(total);
+        out.flush();
+        return total;
+    }
+
+    public static List<TransportDto> load(Path path) throws IOException {
+        List<TransportDto> transports = new ArrayList<>();
+        read(path, transports::add);
+        return transports;
+    }
+
+    public static long read(Path path, Consumer<TransportDto> consumer) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return read(in, consumer);
+        }
+    }
+
+    public static long read(InputStream source, Consumer<TransportDto> consumer) throws IOException {
+        Decoder in = new Decoder(source);
+        byte[] magic = new byte[MAGIC.length];
+        in.readFully(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not a transport snapshot file");
+        }
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported transport snapshot version " + version);
+        }
+
+        List<String> dictionary = new ArrayList<>();
+        long total = 0;
+        int rows;
+        while ((rows = (int) in.readVarLong()) > 0) {
+            readBlock(in, rows, dictionary, consumer);
+            total += rows;
+        }
+        long expected = in.readVarLong();
+        if (expected != total) {
+            throw new IOException("Snapshot is truncated: expected " + expected + " rows, read " + total);
+        }
+        return total;
+    }
+
+    private static void writeBlock(Encoder out, List<TransportDto> block, Map<String, Integer> dictionary) throws IOException {
+        out.writeVarLong(block.size());
+
+        List<String> added = new ArrayList<>();
+        for (TransportDto t : block) {
+            addToDictionary(t.startLocation(), dictionary, added);
+            addToDictionary(t.endLocation(), dictionary, added);
+            addToDictionary(t.transportType(), dictionary, added);
+        }
+        out.writeVarLong(added.size());
+        for (String value : added) {
+            writeString(out, value);
+        }
+
+        long previousId = 0;
+        for (TransportDto t : block) {
+            if (t.id() == null) {
+                out.writeVarLong(0);
+            } else {
+                out.writeVarLong(zigZag(t.id() - previousId) + 1);
+                previousId = t.id();
+            }
+        }
+        for (TransportDto t : block) writeNullableInt(out, t.companyId());
+        for (TransportDto t : block) writeNullableInt(out, t.clientId());
+        for (TransportDto t : block) writeNullableInt(out, t.vehicleId());
+        for (TransportDto t : block) writeNullableInt(out, t.driverId());
+        for (TransportDto t : block) writeDictionaryRef(out, t.startLocation(), dictionary);
+        for (TransportDto t : block) writeDictionaryRef(out, t.endLocation(), dictionary);
+        writeDateColumn(out, block, true);
+        writeDateColumn(out, block, false);
+        for (TransportDto t : block) writeDictionaryRef(out, t.transportType(), dictionary);
+        for (TransportDto t : block) {
+            if (t.cargoDescription() == null) {
+                out.writeVarLong(0);
+            } else {
+                byte[] bytes = t.cargoDescription().getBytes(StandardCharsets.UTF_8);
+                out.writeVarLong(bytes.length + 1L);
+                out.write(bytes);
+            }
+        }
+        for (TransportDto t : block) writeFixedPoint(out, t.cargoWeight());
+        for (TransportDto t : block) writeNullableInt(out, t.passengerCount());
+        for (TransportDto t : block) writeFixedPoint(out, t.price());
+        for (TransportDto t : block) {
+            out.writeByte(t.isPaid() == null ? 0 : t.isPaid() ? 2 : 1);
+        }
+    }
+
+    private static void readBlock(Decoder in, int rows, List<String> dictionary, Consumer<TransportDto> consumer) throws IOException {
+        long additions = in.readVarLong();
+        for (long i = 0; i < additions; i++) {
+            dictionary.add(readString(in, (int) in.readVarLong()));
+        }
+
+        Integer[] ids = new Integer[rows];
+        long previousId = 0;
+        for (int i = 0; i < rows; i++) {
+            long value = in.readVarLong();
+            if (value != 0) {
+                previousId += unZigZag(value - 1);
+                ids[i] = (int) previousId;
+            }
+        }
+        Integer[] companyIds = readNullableInts(in, rows);
+        Integer[] clientIds = readNullableInts(in, rows);
+        Integer[] vehicleIds = readNullableInts(in, rows);
+        Integer[] driverIds = readNullableInts(in, rows);
+        String[] startLocations = readDictionaryRefs(in, rows, dictionary);
+        String[] endLocations = readDictionaryRefs(in, rows, dictionary);
+        LocalDateTime[] startDates = readDateColumn(in, rows);
+        LocalDateTime[] endDates = readDateColumn(in, rows);
+        String[] transportTypes = readDictionaryRefs(in, rows, dictionary);
+        String[] cargoDescriptions = new String[rows];
+        for (int i = 0; i < rows; i++) {
+            long length = in.readVarLong();
+            cargoDescriptions[i] = length == 0 ? null : readString(in, (int) (length - 1));
+        }
+        BigDecimal[] cargoWeights = readFixedPoints(in, rows);
+        Integer[] passengerCounts = readNullableInts(in, rows);
+        BigDecimal[] prices = readFixedPoints(in, rows);
+        Boolean[] paid = new Boolean[rows];
+        for (int i = 0; i < rows; i++) {
+            int flag = in.readUnsignedByte();
+            paid[i] = flag == 0 ? null : flag == 2;
+        }
+
+        for (int i = 0; i < rows; i++) {
+            consumer.accept(new TransportDto(
+                    ids[i],
+                    companyIds[i],
+                    clientIds[i],
+                    vehicleIds[i],
+                    driverIds[i],
+                    startLocations[i],
+                    endLocations[i],
+                    startDates[i],
+                    endDates[i],
+                    transportTypes[i],
+                    cargoDescriptions[i],
+                    cargoWeights[i],
+                    passengerCounts[i],
+                    prices[i],
+                    paid[i]
+            ));
+        }
+    }
+
+    private static void addToDictionary(String value, Map<String, Integer> dictionary, List<String> added) {
+        if (value != null && !dictionary.containsKey(value)) {
+            dictionary.put(value, dictionary.size());
+            added.add(value);
+        }
+    }
+
+    private static void writeDictionaryRef(Encoder out, String value, Map<String, Integer> dictionary) throws IOException {
+        out.writeVarLong(value == null ? 0 : dictionary.get(value) + 1L);
+    }
+
+    private static String[] readDictionaryRefs(Decoder in, int rows, List<String> dictionary) throws IOException {
+        String[] values = new String[rows];
+        for (int i = 0; i < rows; i++) {
+            long ref = in.readVarLong();
+            if (ref > dictionary.size()) {
+                throw new IOException("Corrupt snapshot: dictionary reference " + ref + " out of range");
+            }
+            values[i] = ref == 0 ? null : dictionary.get((int) (ref - 1));
+        }
+        return values;
+    }
+
+    private static void writeNullableInt(Encoder out, Integer value) throws IOException {
+        out.writeVarLong(value == null ? 0 : zigZag(value) + 1);
+    }
+
+    private static Integer[] readNullableInts(Decoder in, int rows) throws IOException {
+        Integer[] values = new Integer[rows];
+        for (int i = 0; i < rows; i++) {
+            long value = in.readVarLong();
+            values[i] = value == 0 ? null : (int) unZigZag(value - 1);
+        }
+        return values;
+    }
+
+    private static void writeDateColumn(Encoder out, List<TransportDto> block, boolean start) throws IOException {
+        long previous = 0;
+        for (TransportDto t : block) {
+            LocalDateTime value = start ? t.startDate() : t.endDate();
+            if (value == null) {
+                out.writeVarLong(0);
+                continue;
+            }
+            long seconds = value.toEpochSecond(ZoneOffset.UTC);
+            out.writeVarLong(zigZag(seconds - previous) + 1);
+            out.writeVarLong(value.getNano());
+            previous = seconds;
+        }
+    }
+
+    private static LocalDateTime[] readDateColumn(Decoder in, int rows) throws IOException {
+        LocalDateTime[] values = new LocalDateTime[rows];
+        long previous = 0;
+        for (int i = 0; i < rows; i++) {
+            long value = in.readVarLong();
+            if (value == 0) {
+                continue;
+            }
+            previous += unZigZag(value - 1);
+            values[i] = LocalDateTime.ofEpochSecond(previous, (int) in.readVarLong(), ZoneOffset.UTC);
+        }
+        return values;
+    }
+
+    private static void writeFixedPoint(Encoder out, BigDecimal value) throws IOException {
+        if (value == null) {
+            out.writeVarLong(0);
+            return;
+        }
+        if (value.scale() > MONEY_SCALE && value.stripTrailingZeros().scale() > MONEY_SCALE) {
+            throw new IllegalArgumentException("Value " + value + " has more than " + MONEY_SCALE
+                    + " decimal places; snapshots store money at the database scale and do not round");
+        }
+        long unscaled;
+        try {
+            unscaled = value.setScale(MONEY_SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Value " + value + " is too large for a fixed-point column with scale " + MONEY_SCALE);
+        }
+        out.writeVarLong(zigZag(unscaled) + 1);
+    }
+
+    private static BigDecimal[] readFixedPoints(Decoder in, int rows) throws IOException {
+        BigDecimal[] values = new BigDecimal[rows];
+        for (int i = 0; i < rows; i++) {
+            long value = in.readVarLong();
+            values[i] = value == 0 ? null : BigDecimal.valueOf(unZigZag(value - 1), MONEY_SCALE);
+        }
+        return values;
+    }
+
+    private static void writeString(Encoder out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeVarLong(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(Decoder in, int length) throws IOException {
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static final class Encoder {
+        private final OutputStream target;
+        private final byte[] buffer = new byte[BUFFER_BYTES];
+        private int position;
+
+        private Encoder(OutputStream target) {
+            this.target = target;
+        }
+
+        void writeByte(int value) throws IOException {
+            if (position == buffer.length) {
+                drain();
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        void write(byte[] bytes) throws IOException {
+            if (bytes.length > buffer.length - position) {
+                drain();
+                if (bytes.length > buffer.length) {
+                    target.write(bytes);
+                    return;
+                }
+            }
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        void writeVarLong(long value) throws IOException {
+            if (buffer.length - position < 10) {
+                drain();
+            }
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        void flush() throws IOException {
+            drain();
+            target.flush();
+        }
+
+        private void drain() throws IOException {
+            target.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    private static final class Decoder {
+        private final InputStream source;
+        private final byte[] buffer = new byte[BUFFER_BYTES];
+        private int position;
+        private int limit;
+
+        private Decoder(InputStream source) {
+            this.source = source;
+        }
+
+        int readUnsignedByte() throws IOException {
+            if (position == limit && !fill()) {
+                throw new EOFException("Unexpected end of snapshot");
+            }
+            return buffer[position++] & 0xFF;
+        }
+
+        void readFully(byte[] bytes) throws IOException {
+            int copied = 0;
+            while (copied < bytes.length) {
+                if (position == limit && !fill()) {
+                    throw new EOFException("Unexpected end of snapshot");
+                }
+                int count = Math.min(bytes.length - copied, limit - position);
+                System.arraycopy(buffer, position, bytes, copied, count);
+                position += count;
+                copied += count;
+            }
+        }
+
+        long readVarLong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readUnsignedByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Corrupt snapshot: varint too long");
+        }
+
+        private boolean fill() throws IOException {
+            int read = source.read(buffer, 0, buffer.length);
+            if (read <= 0) {
+                return false;
+            }
+            position = 0;
+            limit = read;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+-- One-off migration of the transports table to monthly range partitions on start_date. Not run by the
+-- application: stop it, run this file (psql -f), then start it with transport.partitioning.enabled=true so the
+-- partitions of coming months keep being created. Everything runs in one transaction; if any step fails, the
+-- original table is left as it was.
+--
+-- PostgreSQL requires unique keys of a partitioned table to contain the partition key, so:
+--   * the primary key becomes (id, start_date); ids still come from transports_seq and stay unique;
+--   * ux_transports_import_key becomes unique on (import_key, start_date), so the database no longer stops one
+--     import key from being inserted twice. The import looks transports up by import_key alone before writing,
+--     and with transport.partitioning.enabled=true each chunk first takes an advisory lock per key
+--     (ImportKeyLocks), so concurrent imports of one key update in place rather than duplicate. Rows inserted with
+--     an import key outside the import are not covered; a key that matches transports in several months goes to
+--     the reject file as DUPLICATE_IMPORT_KEY. Do not run imports against the migrated table with partitioning off.
+-- Queries that filter on start_date (period reports, company pages) only read the matching months' partitions.
+
+BEGIN;
+
+LOCK TABLE transports IN ACCESS EXCLUSIVE MODE;
+ALTER TABLE transports RENAME TO transports_unpartitioned;
+ALTER TABLE transports_unpartitioned RENAME CONSTRAINT transports_pkey TO transports_unpartitioned_pkey;
+-- Index names are unique per schema and the partitioned table reuses them (so neither Hibernate's schema update
+-- nor db/schema-postgresql.sql creates them again); the old table only keeps its primary key.
+ALTER TABLE transports_unpartitioned DROP CONSTRAINT IF EXISTS ux_transports_import_key;
+DROP INDEX IF EXISTS idx_transports_company_start_date, idx_transports_client_id, idx_transports_vehicle_id,
+    idx_transports_end_location_start_date, idx_transports_updated_at, ux_transports_import_key,
+    idx_transports_driver_id_cov, idx_transports_start_location_trgm, idx_transports_end_location_trgm;
+
+CREATE TABLE transports (LIKE transports_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS)
+    PARTITION BY RANGE (start_date);
+ALTER TABLE transports ADD CONSTRAINT transports_pkey PRIMARY KEY (id, start_date);
+ALTER TABLE transports ADD CONSTRAINT fk_transports_company FOREIGN KEY (company_id) REFERENCES companies (id);
+ALTER TABLE transports ADD CONSTRAINT fk_transports_client FOREIGN KEY (client_id) REFERENCES clients (id);
+ALTER TABLE transports ADD CONSTRAINT fk_transports_vehicle FOREIGN KEY (vehicle_id) REFERENCES vehicles (id);
+ALTER TABLE transports ADD CONSTRAINT fk_transports_driver FOREIGN KEY (driver_id) REFERENCES employees (id);
+
+-- One partition per month from the oldest transport (at most ten years back) to three months ahead; older or
+-- later start dates go to the default partition.
+DO $$
+DECLARE
+    part_start date := date_trunc('month', GREATEST(
+            COALESCE((SELECT MIN(start_date) FROM transports_unpartitioned), now()), now() - interval '10 years'));
+    part_last date := date_trunc('month', GREATEST(
+            COALESCE((SELECT MAX(start_date) FROM transports_unpartitioned), now()), now()) + interval '3 months');
+BEGIN
+    WHILE part_start <= part_last LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF transports FOR VALUES FROM (%L) TO (%L)',
+                'transports_' || to_char(part_start, '"y"YYYY"m"MM'), part_start, part_start + interval '1 month');
+        part_start := part_start + interval '1 month';
+    END LOOP;
+END $$;
+CREATE TABLE transports_default PARTITION OF transports DEFAULT;
+
+INSERT INTO transports SELECT * FROM transports_unpartitioned;
+
+-- Same names and definitions as the entity's @Index list and db/schema-postgresql.sql, created once the data
+-- is in; each one is created on every partition.
+CREATE INDEX idx_transports_company_start_date ON transports (company_id, start_date);
+CREATE INDEX idx_transports_client_id ON transports (client_id);
+CREATE INDEX idx_transports_vehicle_id ON transports (vehicle_id);
+CREATE INDEX idx_transports_end_location_start_date ON transports (end_location, start_date DESC);
+CREATE INDEX idx_transports_updated_at ON transports (updated_at);
+CREATE UNIQUE INDEX ux_transports_import_key ON transports (import_key, start_date);
+CREATE INDEX idx_transports_driver_id_cov ON transports (driver_id) INCLUDE (price, is_paid);
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX idx_transports_start_location_trgm ON transports USING gin (start_location gin_trgm_ops);
+CREATE INDEX idx_transports_end_location_trgm ON transports USING gin (end_location gin_trgm_ops);
+
+ANALYZE transports;
+
+COMMIT;
+
+-- Once the application has been checked against the partitioned table:
+-- DROP TABLE transports_unpartitioned;
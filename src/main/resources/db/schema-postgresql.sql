@@ -0,0 +1,35 @@
+-- Runs on every start after Hibernate's schema update (spring.jpa.defer-datasource-initialization), so every
+-- statement is idempotent.
+--
+-- PostgreSQL only: picked through spring.sql.init.platform.
+--
+-- Ids moved from IDENTITY columns to pooled sequences. Hibernate's schema update creates the sequences with
+-- transport.id.allocation-size as their increment (IdSequenceIncrementAligner keeps existing ones in line); here
+-- the old identity defaults are dropped and each sequence is moved past the ids already in its table.
+-- GREATEST keeps a sequence that is already ahead, so blocks reserved by running instances are never reissued.
+
+ALTER TABLE companies ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE clients ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE vehicles ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE employees ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE transports ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+SELECT setval('companies_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM companies), (SELECT last_value FROM companies_seq)));
+SELECT setval('clients_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM clients), (SELECT last_value FROM clients_seq)));
+SELECT setval('vehicles_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM vehicles), (SELECT last_value FROM vehicles_seq)));
+SELECT setval('employees_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM employees), (SELECT last_value FROM employees_seq)));
+SELECT setval('transports_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM transports), (SELECT last_value FROM transports_seq)));
+
+-- Indexes that JPA's @Index cannot express (INCLUDE columns, NULLS LAST); the plain ones are declared on the entities.
+-- Driver stats and per-driver lookups: count/sum/paid split come from the index alone (index-only scan).
+CREATE INDEX IF NOT EXISTS idx_transports_driver_id_cov ON transports (driver_id) INCLUDE (price, is_paid);
+-- Salary ordering and its keyset pages: ORDER BY salary DESC NULLS LAST, id, read in index order without a sort.
+-- Replaces the salary-only index, which left the id tie-break to an incremental sort.
+DROP INDEX IF EXISTS idx_employees_salary_desc;
+CREATE INDEX IF NOT EXISTS idx_employees_salary_desc_id ON employees (salary DESC NULLS LAST, id);
+
+-- Substring searches (ILIKE '%text%') by origin and destination: trigram GIN indexes serve leading-wildcard
+-- patterns that a B-tree cannot. Terms shorter than three characters yield no trigrams and still scan.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_transports_start_location_trgm ON transports USING gin (start_location gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_transports_end_location_trgm ON transports USING gin (end_location gin_trgm_ops);
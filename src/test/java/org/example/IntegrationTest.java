@@ -0,0 +1,59 @@
+package org.example;
+
+import org.example.model.Client;
+import org.example.model.Company;
+import org.example.model.Transport;
+import org.example.service.ClientService;
+import org.example.service.CompanyRevenueRecomputer;
+import org.example.service.CompanyService;
+import org.example.service.MenuService;
+import org.example.service.TransportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Base for tests against the full application context on the test database. The console menu is mocked so the
+ * context starts without reading stdin, and the revenue recomputer is a spy so a test can make it report a pending
+ * recompute without starting a context of its own. The helpers create the company, client and transport rows tests
+ * build on. Tests share one database, so every company gets a unique name and tests scope their checks to their own rows.
+ */
+@SpringBootTest
+public abstract class IntegrationTest {
+    private static final AtomicInteger COMPANIES = new AtomicInteger();
+
+    @MockitoBean
+    protected MenuService menuService;
+    @MockitoSpyBean
+    protected CompanyRevenueRecomputer revenueRecomputer;
+    @Autowired
+    protected CompanyService companyService;
+    @Autowired
+    protected ClientService clientService;
+    @Autowired
+    protected TransportService transportService;
+    @Autowired
+    protected JdbcTemplate jdbc;
+
+    protected Integer createCompany(String name) {
+        int n = COMPANIES.incrementAndGet();
+        return companyService.createCompany(new Company(name + " " + n, "addr", "1", "company" + n + "@example.com")).getId();
+    }
+
+    protected Integer createClient(Integer companyId) {
+        return clientService.createClient(new Client(null, "Client", "p", "1", "client@example.com", "x"), companyId).getId();
+    }
+
+    protected Integer createTransport(Integer companyId, Integer clientId, String destination, LocalDateTime startDate,
+                                      String price) {
+        Transport transport = new Transport(null, null, null, null, "Sofia", destination, startDate, null,
+                "CARGO", "Pallets", new BigDecimal("1.50"), null, new BigDecimal(price), false);
+        return transportService.createTransport(transport, companyId, clientId, null, null).getId();
+    }
+}
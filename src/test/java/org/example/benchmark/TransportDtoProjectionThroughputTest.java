@@ -0,0 +1,107 @@
+package org.example.benchmark;
+
+import org.example.IntegrationTest;
+import org.example.dto.TransportDto;
+import org.example.mapper.TransportMapper;
+import org.example.model.Employee;
+import org.example.model.Vehicle;
+import org.example.repository.TransportRepository;
+import org.example.service.EmployeeService;
+import org.example.service.VehicleService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Heap allocated and time taken to list one company's transports as DTOs: managed entities mapped with
+ * TransportMapper in a read-write transaction (the path before the projections) against the JPQL constructor
+ * projection in a read-only one. Figures are per 100k rows; allocation is counted on the calling thread, which does
+ * the JDBC reads and the mapping. Run with
+ * {@code mvn test -Pbenchmark -Dtest=TransportDtoProjectionThroughputTest [-Dbenchmark.rows=500000]}.
+ */
+@Tag("benchmark")
+class TransportDtoProjectionThroughputTest extends IntegrationTest {
+    private static final int ROUNDS = 5;
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Autowired
+    TransportRepository transportRepository;
+    @Autowired
+    VehicleService vehicleService;
+    @Autowired
+    EmployeeService employeeService;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Test
+    void dtoProjectionAgainstEntitiesAndMapper() {
+        int rows = Integer.getInteger("benchmark.rows", 100_000);
+        Integer companyId = createCompany("Projection Co");
+        Integer clientId = createClient(companyId);
+        Integer vehicleId = vehicleService.createVehicle(
+                new Vehicle(null, "DTO-" + companyId, "TRUCK", "MAN", "TGX", 2020, BigDecimal.TEN), companyId).getId();
+        Integer driverId = employeeService.createEmployee(new Employee(null, "Dimitar", "Petrov", "1", "d@example.com",
+                "Driver", "CARGO", new BigDecimal("2500.00"), null), companyId).getId();
+        seed(rows, companyId, clientId, vehicleId, driverId);
+
+        TransactionTemplate readWrite = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        Supplier<List<TransportDto>> entities = () -> readWrite.execute(status ->
+                transportRepository.findByCompanyId(companyId).stream().map(TransportMapper::toDto).toList());
+        Supplier<List<TransportDto>> projection = () -> transportService.getTransportDtosByCompanyId(companyId);
+
+        try {
+            assertEquals(rows, projection.get().size());
+            assertEquals(entities.get(), projection.get());
+            for (int round = 1; round <= ROUNDS; round++) {
+                run("entities + mapper", round, rows, entities);
+                run("dto projection", round, rows, projection);
+            }
+        } finally {
+            jdbc.update("delete from transports where company_id = ?", companyId);
+        }
+    }
+
+    private static void run(String name, int round, int rows, Supplier<List<TransportDto>> read) {
+        System.gc();
+        long allocatedBefore = THREADS.getCurrentThreadAllocatedBytes();
+        long started = System.nanoTime();
+        int listed = read.get().size();
+        long nanos = System.nanoTime() - started;
+        long allocated = THREADS.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        assertEquals(rows, listed);
+        System.out.printf("%s, round %d: %d ms and %d MB per 100k rows%n", name, round,
+                nanos * 100_000 / rows / 1_000_000, allocated * 100_000 / rows >> 20);
+    }
+
+    // Plain JDBC batches, so seeding does not pass through the persistence context being measured.
+    private void seed(int rows, Integer companyId, Integer clientId, Integer vehicleId, Integer driverId) {
+        String sql = "insert into transports (id, version, company_id, client_id, vehicle_id, driver_id, start_location, "
+                + "end_location, start_date, transport_type, cargo_description, cargo_weight, price, is_paid) "
+                + "values (?, 0, ?, ?, ?, ?, 'Sofia', ?, ?, 'CARGO', 'Pallets', 1.50, ?, false)";
+        // Below every existing id, so the rows never meet ids the sequence hands out.
+        int firstId = Math.min(0, jdbc.queryForObject("select coalesce(min(id), 0) from transports", Integer.class)) - 1;
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 8, 0);
+        List<Object[]> batch = new ArrayList<>(1_000);
+        for (int i = 0; i < rows; i++) {
+            batch.add(new Object[]{firstId - i, companyId, clientId, i % 2 == 0 ? vehicleId : null,
+                    i % 3 == 0 ? null : driverId, "City " + i % 200, Timestamp.valueOf(start.plusMinutes(i)),
+                    BigDecimal.valueOf(10_000 + i % 90_000, 2)});
+            if (batch.size() == 1_000 || i == rows - 1) {
+                jdbc.batchUpdate(sql, batch);
+                batch.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package org.example.benchmark;
+
+import org.example.IntegrationTest;
+import org.example.model.Client;
+import org.example.model.Company;
+import org.example.model.Transport;
+import org.example.repository.ClientRepository;
+import org.example.repository.CompanyRepository;
+import org.example.repository.TransportRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Insert throughput of transports with pooled sequence ids and JDBC batching, against one INSERT round trip per row
+ * as IDENTITY ids forced. Runs on the test database (H2) unless pointed elsewhere, e.g.
+ * {@code mvn test -Pbenchmark -Dtest=TransportInsertThroughputTest -Dspring.datasource.url=jdbc:postgresql://...
+ * -Dspring.datasource.driver-class-name=org.postgresql.Driver -Dspring.datasource.username=postgres
+ * -Dspring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect}; add
+ * {@code -Dspring.jpa.properties.transport.id.allocation-size=1} to compare block sizes.
+ */
+@Tag("benchmark")
+class TransportInsertThroughputTest extends IntegrationTest {
+    private static final int ROUNDS = 3;
+    private static final int CHUNKS = 10;
+    private static final int CHUNK_SIZE = 1000;
+
+    @Autowired
+    CompanyRepository companyRepository;
+    @Autowired
+    ClientRepository clientRepository;
+    @Autowired
+    TransportRepository transportRepository;
+    @Autowired
+    EntityManager entityManager;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Test
+    void batchedInsertsAgainstRowAtATime() {
+        Integer companyId = createCompany("Bench Co");
+        Integer clientId = createClient(companyId);
+        long before = transportRepository.count();
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            run("row at a time", round, companyId, clientId, false);
+            run("batched", round, companyId, clientId, true);
+        }
+
+        assertEquals(before + 2L * ROUNDS * CHUNKS * CHUNK_SIZE, transportRepository.count());
+    }
+
+    private void run(String name, int round, Integer companyId, Integer clientId, boolean batched) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        long started = System.nanoTime();
+        for (int chunk = 0; chunk < CHUNKS; chunk++) {
+            transactionTemplate.executeWithoutResult(status -> {
+                Company company = companyRepository.getReferenceById(companyId);
+                Client client = clientRepository.getReferenceById(clientId);
+                List<Transport> transports = new ArrayList<>(CHUNK_SIZE);
+                for (int i = 0; i < CHUNK_SIZE; i++) {
+                    Transport transport = new Transport(company, client, null, null, "Sofia", "Varna",
+                            LocalDateTime.of(2026, 1, 1 + i % 28, 10, 0), null, "CARGO", "Pallets",
+                            BigDecimal.ONE, null, BigDecimal.TEN, false);
+                    if (batched) {
+                        transports.add(transport);
+                    } else {
+                        entityManager.persist(transport);
+                        entityManager.flush();
+                    }
+                }
+                transportRepository.saveAll(transports);
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+        long millis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        int rows = CHUNKS * CHUNK_SIZE;
+        System.out.printf("%s, round %d: %d rows in %d ms = %d rows/sec, %d statements%n",
+                name, round, rows, millis, rows * 1000L / millis, statistics.getPrepareStatementCount());
+    }
+}
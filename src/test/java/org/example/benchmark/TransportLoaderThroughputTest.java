@@ -0,0 +1,117 @@
+package org.example.benchmark;
+
+import org.example.dto.TransportDto;
+import org.example.util.TransportFileIO;
+import org.example.util.TransportFileRow;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Load throughput of a plain text transport file: the original loader (BufferedReader, String.split and a
+ * DateTimeFormatter per row) against the streaming, memory-mapped and parallel loaders. Run with
+ * {@code mvn test -Pbenchmark -Dtest=TransportLoaderThroughputTest [-Dbenchmark.rows=2000000]}.
+ */
+@Tag("benchmark")
+class TransportLoaderThroughputTest {
+    private static final int ROUNDS = 5;
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void loadersAgainstOriginalLoader() throws IOException {
+        int rows = Integer.getInteger("benchmark.rows", 500_000);
+        Path file = dir.resolve("transports.txt");
+        TransportFileIO.writeTransportDtosToFile(LongStream.rangeClosed(1, rows).mapToObj(i -> transport((int) i)),
+                file.toString());
+        System.out.printf("%d rows, %d MB%n", rows, Files.size(file) >> 20);
+
+        Map<String, Loader> loaders = new LinkedHashMap<>();
+        loaders.put("original", () -> loadOriginal(file));
+        loaders.put("streaming", () -> TransportFileIO.loadTransportsFromFile(file.toString()));
+        loaders.put("mapped", () -> TransportFileIO.loadTransportsFromFileMapped(file.toString()));
+        loaders.put("parallel", () -> TransportFileIO.loadTransportsFromFileParallel(file.toString()));
+
+        List<TransportFileRow> expected = loadOriginal(file);
+        assertEquals(rows, expected.size());
+        for (int round = 1; round <= ROUNDS; round++) {
+            for (Map.Entry<String, Loader> loader : loaders.entrySet()) {
+                long started = System.nanoTime();
+                List<TransportFileRow> loaded = loader.getValue().load();
+                long millis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+                System.out.printf("%s, round %d: %d ms = %d rows/sec%n",
+                        loader.getKey(), round, millis, rows * 1000L / millis);
+                if (round == 1) {
+                    assertEquals(expected, loaded, loader.getKey());
+                }
+            }
+        }
+    }
+
+    private interface Loader {
+        List<TransportFileRow> load() throws IOException;
+    }
+
+    private static TransportDto transport(int id) {
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 8, 0).plusMinutes(id * 7L);
+        boolean cargo = id % 3 != 0;
+        return new TransportDto(id, 1 + id % 20, 1 + id % 500, id % 4 == 0 ? null : 1 + id % 50, 1 + id % 80,
+                "Sofia", "City " + id % 200, start, id % 2 == 0 ? start.plusHours(6) : null,
+                cargo ? "CARGO" : "PASSENGER", cargo ? "Pallets" : "", cargo ? BigDecimal.valueOf(id % 10_000, 2) : null,
+                cargo ? null : id % 50, BigDecimal.valueOf(10_000 + id % 90_000, 2), id % 2 == 0);
+    }
+
+    // The loader as it was before the streaming, mapped and parallel loaders replaced it.
+    private static List<TransportFileRow> loadOriginal(Path path) throws IOException {
+        List<TransportFileRow> transports = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            String line = reader.readLine();
+            if (line == null || !line.startsWith("ID")) {
+                return transports;
+            }
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                String[] parts = line.split("\\|", -1);
+                if (parts.length < 15) {
+                    continue;
+                }
+                transports.add(new TransportFileRow(
+                        parts[0].isEmpty() ? null : Integer.parseInt(parts[0]),
+                        parts[1].isEmpty() ? null : Integer.parseInt(parts[1]),
+                        parts[2].isEmpty() ? null : Integer.parseInt(parts[2]),
+                        parts[3].isEmpty() ? null : Integer.parseInt(parts[3]),
+                        parts[4].isEmpty() ? null : Integer.parseInt(parts[4]),
+                        parts[5],
+                        parts[6],
+                        parts[7].isEmpty() ? null : LocalDateTime.parse(parts[7], DATE_FORMATTER),
+                        parts[8].isEmpty() ? null : LocalDateTime.parse(parts[8], DATE_FORMATTER),
+                        parts[9],
+                        parts[10],
+                        parts[11].isEmpty() ? null : new BigDecimal(parts[11]),
+                        parts[12].isEmpty() ? null : Integer.parseInt(parts[12]),
+                        parts[13].isEmpty() ? null : new BigDecimal(parts[13]),
+                        parts[14].isEmpty() ? null : Boolean.parseBoolean(parts[14])));
+            }
+        }
+        return transports;
+    }
+}
@@ -0,0 +1,238 @@
+package org.example.benchmark;
+
+import org.example.IntegrationTest;
+import org.example.repository.CapturedSql;
+import org.example.repository.TransportRepository;
+import org.example.service.ImportKeyLocks;
+import org.example.service.ReportService;
+import org.example.service.TransportImportService;
+import org.example.service.TransportPartitionMaintainer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Period reports on PostgreSQL before and after the transports table is range-partitioned by start_date, and a smoke
+ * check of the migration and of what runs against the migrated table. Seeds {@code benchmark.rows} transports over
+ * three years into the unpartitioned table, times the reports, migrates it with
+ * db/partition-transports-by-start-date.sql, then checks the reports give the same answers while reading only the
+ * partitions of their months, and times them again. Runs only against PostgreSQL; point it at a database of its own,
+ * since the schema is dropped and recreated around it:
+ * {@code mvn test -Pbenchmark -Dtest=TransportPartitioningTest -DDB_PLATFORM=postgresql
+ * -Dspring.datasource.url=jdbc:postgresql://localhost/bench
+ * -Dspring.datasource.driver-class-name=org.postgresql.Driver -Dspring.datasource.username=postgres
+ * -Dspring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect [-Dbenchmark.rows=3000000]}.
+ */
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "spring.datasource.url", matches = "jdbc:postgresql:.*")
+@SpringBootTest(properties = {
+        "transport.partitioning.enabled=true",
+        "spring.jpa.properties.hibernate.hbm2ddl.extra_physical_table_types=PARTITIONED TABLE"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TransportPartitioningTest extends IntegrationTest {
+    private static final int ROUNDS = 20;
+    private static final int COMPANIES = 50;
+    private static final LocalDateTime FIRST_START = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime MONTH = LocalDateTime.of(2026, 9, 1, 0, 0);
+    private static final LocalDateTime MONTH_END = LocalDateTime.of(2026, 9, 30, 23, 59, 59);
+    private static final LocalDateTime QUARTER = LocalDateTime.of(2026, 7, 1, 0, 0);
+    private static final Pattern PARTITION = Pattern.compile("transports_(y\\d{4}m\\d{2}|default)");
+    private static final String HEADER = "ID|CompanyID|ClientID|VehicleID|DriverID|StartLocation|EndLocation|StartDate|EndDate|TransportType|CargoDescription|CargoWeight|PassengerCount|Price|IsPaid";
+
+    @Autowired
+    ReportService reportService;
+    @Autowired
+    TransportRepository transportRepository;
+    @Autowired
+    TransportPartitionMaintainer partitionMaintainer;
+    @Autowired
+    TransportImportService importService;
+    @Autowired
+    ImportKeyLocks importKeyLocks;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    private int rows;
+    private final Map<String, Supplier<Object>> reports = new LinkedHashMap<>();
+    private final Map<String, Object> unpartitionedResults = new LinkedHashMap<>();
+
+    @BeforeAll
+    void seedTimeAndMigrate() throws IOException {
+        rows = Integer.getInteger("benchmark.rows", 1_000_000);
+        // Negative ids, so the seeded rows never meet the ids the sequences hand out to the helpers.
+        jdbc.update("insert into companies (id, version, name, address, phone, email, revenue, created_at) "
+                + "select -g, 0, 'Partition Co ' || g, 'addr', '1', 'p' || g || '@example.com', 0, now() "
+                + "from generate_series(1, ?) g", COMPANIES);
+        jdbc.update("insert into clients (id, version, company_id, name, contact_person, phone, email, address) "
+                + "select -g, 0, -g, 'Client ' || g, 'p', '1', 'client@example.com', 'x' from generate_series(1, ?) g",
+                COMPANIES);
+        // Spread evenly over three years, so a month holds about 1/36 of the rows.
+        jdbc.update("insert into transports (id, version, company_id, client_id, start_location, end_location, "
+                + "start_date, transport_type, cargo_description, cargo_weight, price, is_paid, created_at, updated_at) "
+                + "select -g, 0, -(1 + g % ?), -(1 + g % ?), 'Sofia', 'City ' || g % 200, "
+                + "?::timestamp + (g % 1096) * interval '1 day' + (g % 86400) * interval '1 second', "
+                + "'CARGO', 'Pallets', 1.50, 10 + g % 90, g % 3 = 0, now(), now() from generate_series(1, ?) g",
+                COMPANIES, COMPANIES, Timestamp.valueOf(FIRST_START), rows);
+        jdbc.execute("analyze companies, clients, transports");
+
+        reports.put("revenue, 1 month", () -> reportService.getCompanyRevenueForPeriod(-7, MONTH, MONTH_END));
+        reports.put("revenue, 3 months", () -> reportService.getCompanyRevenueForPeriod(-7, QUARTER, MONTH_END));
+        reports.put("transports, 1 month", () -> transactionTemplate.execute(status ->
+                transportService.getTransportsByDateRange(-7, MONTH, MONTH_END).size()));
+        for (Map.Entry<String, Supplier<Object>> report : reports.entrySet()) {
+            unpartitionedResults.put(report.getKey(), time("unpartitioned", report.getKey(), report.getValue()));
+        }
+
+        String migration = new ClassPathResource("db/partition-transports-by-start-date.sql")
+                .getContentAsString(StandardCharsets.UTF_8);
+        jdbc.execute((Connection c) -> {
+            try (Statement statement = c.createStatement()) {
+                statement.execute(migration);
+            }
+            return null;
+        });
+    }
+
+    @AfterAll
+    void dropUnpartitioned() {
+        jdbc.execute("drop table if exists transports_unpartitioned");
+    }
+
+    @Test
+    void periodReportsMatchAndReadOnlyTheirMonths() {
+        assertEquals(rows, jdbc.queryForObject("select count(*) from transports where id between ? and -1", Integer.class, -rows));
+        for (Map.Entry<String, Supplier<Object>> report : reports.entrySet()) {
+            Object partitioned = time("partitioned", report.getKey(), report.getValue());
+            assertEquals(unpartitionedResults.get(report.getKey()), partitioned, report.getKey());
+        }
+
+        String sql = CapturedSql.capture(() -> transportRepository.sumPriceByCompanyIdAndDateRange(-7, MONTH, MONTH_END));
+        String plan = String.join("\n", jdbc.queryForList("explain " + sql, String.class,
+                -7, Timestamp.valueOf(MONTH), Timestamp.valueOf(MONTH_END)));
+        Set<String> partitions = new TreeSet<>();
+        Matcher matcher = PARTITION.matcher(plan);
+        while (matcher.find()) {
+            partitions.add(matcher.group());
+        }
+        assertEquals(Set.of("transports_y2026m09"), partitions, plan);
+    }
+
+    @Test
+    void maintainerCreatesMissingMonthsAndMovesStrandedRows() {
+        // Past the months the migration created, so the row lands in the default partition.
+        LocalDateTime stranded = LocalDateTime.of(2031, 3, 10, 8, 0);
+        jdbc.update("insert into transports (id, version, company_id, client_id, start_location, end_location, "
+                + "start_date, transport_type, price, is_paid) values (?, 0, -1, -1, 'Sofia', 'Varna', ?, 'CARGO', 5, false)",
+                -(rows + 1), Timestamp.valueOf(stranded));
+        assertEquals("transports_default", partitionOf(-(rows + 1)));
+
+        List<String> created = partitionMaintainer.ensureMonthlyPartitions(LocalDate.of(2031, 2, 1), 2);
+
+        assertEquals(List.of("transports_y2031m02", "transports_y2031m03", "transports_y2031m04"), created);
+        assertEquals("transports_y2031m03", partitionOf(-(rows + 1)));
+        assertEquals(List.of(), partitionMaintainer.ensureMonthlyPartitions(LocalDate.of(2031, 2, 1), 2));
+        assertEquals(indexCount("transports_y2026m09"), indexCount("transports_y2031m03"));
+        assertEquals(indexCount("transports_y2026m09"), indexCount("transports_y2031m02"));
+    }
+
+    @Test
+    void concurrentImportsOfOneKeyInDifferentMonthsKeepOneTransport(@TempDir Path dir) throws Exception {
+        Integer company = createCompany("Import Key Co");
+        Integer client = createClient(company);
+        Path file = dir.resolve("replay.txt");
+        Files.write(file, List.of(HEADER, "900001|" + company + "|" + client
+                + "|||Sofia|Varna|2026-05-10 10:00:00||CARGO|Pallets|1.5||25.00|false"));
+
+        // Another import holds the key's lock and inserts the same key in another month.
+        CountDownLatch locked = new CountDownLatch(1);
+        CompletableFuture<Void> other = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            importKeyLocks.lockForTransaction(List.of("id:900001"));
+            locked.countDown();
+            awaitAdvisoryLockWaiter();
+            jdbc.update("insert into transports (id, version, company_id, client_id, start_location, end_location, "
+                    + "start_date, transport_type, price, is_paid, import_key) "
+                    + "values (?, 0, ?, ?, 'Sofia', 'Varna', ?, 'CARGO', 20, false, 'id:900001')",
+                    -(rows + 2), company, client, Timestamp.valueOf(LocalDateTime.of(2026, 2, 10, 10, 0)));
+        }));
+        assertTrue(locked.await(10, TimeUnit.SECONDS));
+
+        importService.importFromFile(file.toString());
+        other.get(10, TimeUnit.SECONDS);
+
+        List<Map<String, Object>> keyed = jdbc.queryForList(
+                "select start_date, price from transports where import_key = 'id:900001'");
+        assertEquals(1, keyed.size(), keyed.toString());
+        assertEquals(Timestamp.valueOf(LocalDateTime.of(2026, 5, 10, 10, 0)), keyed.get(0).get("start_date"));
+        assertEquals(0, new BigDecimal("25.00").compareTo((BigDecimal) keyed.get(0).get("price")));
+    }
+
+    private void awaitAdvisoryLockWaiter() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (jdbc.queryForObject("select count(*) from pg_locks where locktype = 'advisory' and not granted",
+                Integer.class) == 0) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("The import never waited for the key lock");
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private Object time(String table, String name, Supplier<Object> report) {
+        for (int i = 0; i < 5; i++) {
+            report.get();
+        }
+        long[] nanos = new long[ROUNDS];
+        Object result = null;
+        for (int i = 0; i < ROUNDS; i++) {
+            long started = System.nanoTime();
+            result = report.get();
+            nanos[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("%s, %s: median %.2f ms, p90 %.2f ms (%d rows)%n", table, name, nanos[ROUNDS / 2] / 1e6,
+                nanos[ROUNDS * 9 / 10] / 1e6, rows);
+        return result;
+    }
+
+    private String partitionOf(int id) {
+        return jdbc.queryForObject("select tableoid::regclass::text from transports where id = ?", String.class, id);
+    }
+
+    private int indexCount(String partition) {
+        return jdbc.queryForObject("select count(*) from pg_index where indrelid = ?::regclass", Integer.class, partition);
+    }
+}
@@ -0,0 +1,60 @@
+package org.example.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.IntegrationTest;
+import org.example.model.Client;
+import org.example.repository.ClientRepository;
+import org.example.repository.VehicleRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The "replica" is the primary's own in-memory database, which is enough to see what read-only sessions cache.
+@SpringBootTest(properties = {
+        "transport.read-replicas.enabled=true",
+        "transport.read-replicas.urls=${spring.datasource.url}"
+})
+class ReplicaReadCacheTest extends IntegrationTest {
+    @Autowired
+    ClientRepository clientRepository;
+    @Autowired
+    VehicleRepository vehicleRepository;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void readOnlyTransactionsDoNotPopulateSecondLevelCache() {
+        assertInstanceOf(ReplicaReadJpaTransactionManager.class, transactionManager);
+        Integer companyId = createCompany("Replica Co");
+        Integer id = createClient(companyId);
+        entityManagerFactory.getCache().evictAll();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> {
+            clientRepository.findById(id).orElseThrow();
+            vehicleRepository.findByCompanyId(companyId);
+        });
+        assertFalse(entityManagerFactory.getCache().contains(Client.class, id));
+        assertEquals(0, statistics.getSecondLevelCachePutCount());
+        assertEquals(0, statistics.getQueryCachePutCount());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> clientRepository.findById(id).orElseThrow());
+        assertTrue(entityManagerFactory.getCache().contains(Client.class, id));
+
+        // Read-only sessions still read what the primary cached
+        long hits = statistics.getSecondLevelCacheHitCount();
+        readOnly.executeWithoutResult(status -> clientRepository.findById(id).orElseThrow());
+        assertEquals(hits + 1, statistics.getSecondLevelCacheHitCount());
+    }
+}
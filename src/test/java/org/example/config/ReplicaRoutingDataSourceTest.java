@@ -0,0 +1,96 @@
+package org.example.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReplicaRoutingDataSourceTest {
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection firstReplicaConnection = mock(Connection.class);
+    private final Connection secondReplicaConnection = mock(Connection.class);
+
+    @AfterEach
+    void clearReadOnly() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void writesUsePrimaryAndReadOnlyTransactionsAlternateBetweenReplicas() throws SQLException {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(dataSource(primaryConnection),
+                List.of(dataSource(firstReplicaConnection), dataSource(secondReplicaConnection)), 60_000);
+
+        assertSame(primaryConnection, routing.getConnection());
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertSame(firstReplicaConnection, routing.getConnection());
+        assertSame(secondReplicaConnection, routing.getConnection());
+        assertSame(firstReplicaConnection, routing.getConnection());
+    }
+
+    @Test
+    void failedReplicaIsSkippedUntilRetryWindowPasses() throws Exception {
+        DataSource failing = mock(DataSource.class);
+        when(failing.getConnection()).thenThrow(new SQLException("connection refused"));
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(dataSource(primaryConnection),
+                List.of(failing, dataSource(secondReplicaConnection)), 200);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // The first read fails over to the next replica, after that the failed one is not asked again
+        assertSame(secondReplicaConnection, routing.getConnection());
+        assertSame(secondReplicaConnection, routing.getConnection());
+        assertSame(secondReplicaConnection, routing.getConnection());
+        verify(failing, times(1)).getConnection();
+
+        Thread.sleep(250);
+        routing.getConnection();
+        routing.getConnection();
+        verify(failing, times(2)).getConnection();
+    }
+
+    @Test
+    void readOnlyTransactionsUsePrimaryWhenNoReplicaIsAvailable() throws SQLException {
+        DataSource failing = mock(DataSource.class);
+        when(failing.getConnection()).thenThrow(new SQLException("connection refused"));
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(dataSource(primaryConnection), List.of(failing), 60_000);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(primaryConnection, routing.getConnection());
+        assertSame(primaryConnection, routing.getConnection());
+        verify(failing, times(1)).getConnection();
+    }
+
+    @Test
+    void connectionsWithCredentialsFailOverLikeTheDefaultOnes() throws SQLException {
+        DataSource failing = mock(DataSource.class);
+        when(failing.getConnection("reader", "secret")).thenThrow(new SQLException("connection refused"));
+        DataSource primary = mock(DataSource.class);
+        when(primary.getConnection("reader", "secret")).thenReturn(primaryConnection);
+        DataSource replica = mock(DataSource.class);
+        when(replica.getConnection("reader", "secret")).thenReturn(secondReplicaConnection);
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, List.of(failing, replica), 60_000);
+
+        assertSame(primaryConnection, routing.getConnection("reader", "secret"));
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertSame(secondReplicaConnection, routing.getConnection("reader", "secret"));
+        assertSame(secondReplicaConnection, routing.getConnection("reader", "secret"));
+        verify(failing, times(1)).getConnection("reader", "secret");
+
+        ReplicaRoutingDataSource allDown = new ReplicaRoutingDataSource(primary, List.of(failing), 60_000);
+        assertSame(primaryConnection, allDown.getConnection("reader", "secret"));
+    }
+
+    private static DataSource dataSource(Connection connection) throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        return dataSource;
+    }
+}
@@ -0,0 +1,40 @@
+package org.example.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Records the SQL Hibernate prepares on the calling thread while {@link #capture} runs, so tests can EXPLAIN exactly
+ * what a repository method sends. Registered for every test context through
+ * {@code hibernate.session_factory.statement_inspector}; outside a capture it passes statements through untouched.
+ */
+public class CapturedSql implements StatementInspector {
+    private static final ThreadLocal<List<String>> CAPTURED = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        List<String> captured = CAPTURED.get();
+        if (captured != null) {
+            captured.add(sql);
+        }
+        return sql;
+    }
+
+    // The first statement the call prepares: the query itself, before any lazy loads it triggers.
+    public static String capture(Supplier<?> call) {
+        List<String> captured = new ArrayList<>();
+        CAPTURED.set(captured);
+        try {
+            call.get();
+        } finally {
+            CAPTURED.remove();
+        }
+        if (captured.isEmpty()) {
+            throw new IllegalStateException("The call prepared no statement (answered from a cache?)");
+        }
+        return captured.get(0);
+    }
+}
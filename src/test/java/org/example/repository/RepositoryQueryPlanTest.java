@@ -0,0 +1,206 @@
+package org.example.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.IntegrationTest;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * EXPLAINs the SQL Hibernate generates for the hot repository queries, with the same arguments bound, and fails when
+ * a plan scans a table holding more than {@code plan.seq-scan-rows} rows (default 1000). The tables are seeded well
+ * past that, under negative ids so the rows never meet the sequences, and emptied again afterwards. Runs on H2 by
+ * default; {@code mvn test -Dtest=RepositoryQueryPlanTest -DDB_PLATFORM=postgresql
+ * -Dspring.datasource.url=jdbc:postgresql://... -Dspring.datasource.driver-class-name=org.postgresql.Driver
+ * -Dspring.datasource.username=postgres -Dspring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect}
+ * checks the PostgreSQL plans, analyzed after seeding.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RepositoryQueryPlanTest extends IntegrationTest {
+    private static final long SEQ_SCAN_ROWS = Long.getLong("plan.seq-scan-rows", 1_000);
+    private static final int COMPANIES = 100;
+    private static final int TRANSPORTS = (int) Math.max(20_000, SEQ_SCAN_ROWS * 20);
+    private static final int PER_COMPANY = (int) Math.max(2_000, SEQ_SCAN_ROWS * 2);
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 8, 0);
+    private static final Pattern H2_SCAN = Pattern.compile("(\\w+)\\.tableScan");
+    private static final Pattern PG_SCAN = Pattern.compile("Seq Scan on (\\w+)");
+
+    @Autowired
+    TransportRepository transportRepository;
+    @Autowired
+    ClientRepository clientRepository;
+    @Autowired
+    VehicleRepository vehicleRepository;
+    @Autowired
+    EmployeeRepository employeeRepository;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    private boolean postgres;
+
+    @BeforeAll
+    void seed() {
+        postgres = jdbc.execute((Connection c) -> c.getMetaData().getDatabaseProductName()).equals("PostgreSQL");
+        deleteSeeded();
+        LocalDateTime now = LocalDateTime.now();
+        insert("insert into companies (id, version, name, address, phone, email, revenue, created_at) "
+                + "values (?, 0, ?, 'addr', '1', ?, 0, ?)", COMPANIES,
+                i -> new Object[]{-i, "Plan Co " + i, "plan" + i + "@example.com", now});
+        insert("insert into clients (id, version, company_id, name, contact_person, phone, email, address, created_at) "
+                + "values (?, 0, ?, ?, 'p', '1', 'client@example.com', 'x', ?)", PER_COMPANY,
+                i -> new Object[]{-i, company(i), "Client " + i, now});
+        insert("insert into vehicles (id, version, company_id, license_plate, vehicle_type, brand, model, year, capacity, "
+                + "created_at) values (?, 0, ?, ?, 'TRUCK', 'MAN', 'TGX', 2020, 10, ?)", PER_COMPANY,
+                i -> new Object[]{-i, company(i), "PLAN-" + i, now});
+        insert("insert into employees (id, version, company_id, first_name, last_name, position, qualification, salary, "
+                + "hire_date, created_at) values (?, 0, ?, 'First', ?, 'Driver', 'CARGO', ?, ?, ?)", PER_COMPANY,
+                i -> new Object[]{-i, company(i), "Last " + i, i % 10 == 0 ? null : BigDecimal.valueOf(1_000 + i % 3_000),
+                        now.toLocalDate(), now});
+        insert("insert into transports (id, version, company_id, client_id, vehicle_id, driver_id, start_location, "
+                + "end_location, start_date, transport_type, cargo_description, cargo_weight, price, is_paid, created_at, "
+                + "updated_at) values (?, 0, ?, ?, ?, ?, 'Sofia', ?, ?, 'CARGO', 'Pallets', 1.50, 10.00, false, ?, ?)",
+                TRANSPORTS, i -> new Object[]{-i, company(i), -(1 + i % PER_COMPANY), -(1 + i % PER_COMPANY),
+                        -(1 + i % PER_COMPANY), "City " + i % 200, Timestamp.valueOf(START.plusHours(i)), now, now});
+        if (postgres) {
+            jdbc.execute("analyze companies, clients, vehicles, employees, transports");
+        }
+    }
+
+    @AfterAll
+    void deleteSeeded() {
+        for (String table : List.of("transports", "employees", "vehicles", "clients", "companies")) {
+            jdbc.update("delete from " + table + " where id < 0");
+        }
+    }
+
+    @BeforeEach
+    void evictCaches() {
+        // Cached query results would answer without any SQL to explain.
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    @Test
+    void transportLookupsUseIndexes() {
+        String byCompany = explain(() -> transportRepository.findByCompanyId(-7), -7);
+        // On H2 the foreign key's own company_id index serves this as well as the composite one.
+        assertIndexed(byCompany);
+
+        String byDriver = explain(() -> transportRepository.findByDriverId(-7), -7);
+        assertIndexedOnPostgres(byDriver, "idx_transports_driver_id_cov");
+
+        LocalDateTime from = START.plusDays(10);
+        LocalDateTime to = START.plusDays(40);
+        String byDateRange = explain(() -> transportRepository.findByCompanyIdAndDateRange(-7, from, to), -7, from, to);
+        assertIndexed(byDateRange, "idx_transports_company_start_date");
+
+        LocalDateTime now = LocalDateTime.now();
+        String markPaidByClient = explain(() -> transportRepository.markPaidByClientId(-7, now), now, -7);
+        assertIndexed(markPaidByClient, "idx_transports_client_id");
+    }
+
+    @Test
+    void companyReferenceLookupsUseIndexes() {
+        assertIndexed(explain(() -> clientRepository.findByCompanyId(-7), -7));
+        assertIndexed(explain(() -> vehicleRepository.findByCompanyId(-7), -7));
+        assertIndexed(explain(() -> employeeRepository.findByCompanyId(-7), -7));
+    }
+
+    @Test
+    void salaryPagesFollowTheSalaryIndex() {
+        String firstPage = explain(() -> employeeRepository.findFirstPageBySalaryDesc(Limit.of(20)), 20);
+        assertIndexed(firstPage, "idx_employees_salary_desc_id");
+    }
+
+    @Test
+    void keysetPagesSeekAlongIndexes() {
+        LocalDateTime at = START.plusDays(30);
+        assertIndexedOnPostgres(explain(() -> transportRepository.findByCompanyIdOrderByStartDateDescIdDesc(-7,
+                Limit.of(21)), -7, 21), "idx_transports_company_start_date");
+        assertIndexedOnPostgres(explain(() -> transportRepository.findNextByCompanyId(-7, at, -500, Limit.of(21)),
+                -7, at, at, -500, 21), "idx_transports_company_start_date");
+        assertIndexed(explain(() -> transportRepository.findFirstPageByDestination(Limit.of(21)), 21),
+                "idx_transports_end_location_start_date");
+        assertIndexed(explain(() -> transportRepository.findNextByDestination("City 50", at, -500, Limit.of(21)),
+                "City 50", "City 50", at, at, -500, 21), "idx_transports_end_location_start_date");
+        assertIndexedOnPostgres(explain(() -> clientRepository.findByCompanyIdOrderByNameAscIdAsc(-7, Limit.of(21)),
+                -7, 21), "idx_clients_company_name");
+        assertIndexedOnPostgres(explain(() -> clientRepository.findNextByCompanyIdAndName(-7, "Client 506", -506, Limit.of(21)),
+                -7, "Client 506", "Client 506", -506, 21), "idx_clients_company_name");
+        assertIndexed(explain(() -> employeeRepository.findNextBySalaryDesc(BigDecimal.valueOf(2_000), -1_000,
+                Limit.of(21)), BigDecimal.valueOf(2_000), BigDecimal.valueOf(2_000), -1_000, 21), "idx_employees_salary_desc_id");
+    }
+
+    // Runs the call to capture its SQL, then explains that SQL with the given arguments bound in placeholder order.
+    private String explain(Supplier<?> call, Object... args) {
+        String sql = CapturedSql.capture(() -> transactionTemplate.execute(status -> call.get()));
+        assertEquals(args.length, sql.chars().filter(c -> c == '?').count(), sql);
+        Object[] bound = new Object[args.length];
+        for (int i = 0; i < args.length; i++) {
+            bound[i] = args[i] instanceof LocalDateTime time ? Timestamp.valueOf(time) : args[i];
+        }
+        return sql + "\n" + String.join("\n", jdbc.queryForList("explain " + sql, String.class, bound));
+    }
+
+    // Fails on a scan of a table above the threshold and, when indexes are given, unless one of them is used.
+    private void assertIndexed(String plan, String... indexes) {
+        Map<String, Long> scanned = new TreeMap<>();
+        Matcher matcher = (postgres ? PG_SCAN : H2_SCAN).matcher(plan);
+        while (matcher.find()) {
+            String table = matcher.group(1);
+            scanned.put(table, jdbc.queryForObject("select count(*) from " + table, Long.class));
+        }
+        scanned.values().removeIf(rows -> rows <= SEQ_SCAN_ROWS);
+        assertTrue(scanned.isEmpty(), "sequential scan of " + scanned + " rows:\n" + plan);
+        String lower = plan.toLowerCase();
+        assertTrue(indexes.length == 0 || List.of(indexes).stream().anyMatch(index -> lower.contains(index.toLowerCase())),
+                "expected one of " + List.of(indexes) + ":\n" + plan);
+    }
+
+    // H2 indexes every foreign key itself and, at equal cost, prefers that index over the declared one; there the
+    // lookup only has to avoid a scan.
+    private void assertIndexedOnPostgres(String plan, String index) {
+        if (postgres) {
+            assertIndexed(plan, index);
+        } else {
+            assertIndexed(plan);
+        }
+    }
+
+    private void insert(String sql, int rows, IntFunction<Object[]> row) {
+        List<Object[]> batch = new ArrayList<>(1_000);
+        for (int i = 1; i <= rows; i++) {
+            batch.add(row.apply(i));
+            if (batch.size() == 1_000 || i == rows) {
+                jdbc.batchUpdate(sql, batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private static int company(int i) {
+        return -(1 + i % COMPANIES);
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.service;
+
+import org.example.repository.CompanyRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CompanyRevenueRecomputerTest {
+    private final CompanyRepository companyRepository = mock(CompanyRepository.class);
+    private final TransactionRetry transactionRetry = mock(TransactionRetry.class);
+    private final CompanyRevenueRecomputer recomputer = new CompanyRevenueRecomputer(companyRepository,
+            mock(CompanyRevenueLocks.class), transactionRetry, 500, 5_000, 50, 200);
+
+    CompanyRevenueRecomputerTest() {
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(transactionRetry).run(any());
+    }
+
+    @AfterEach
+    void shutdown() throws InterruptedException {
+        recomputer.shutdown();
+    }
+
+    @Test
+    void failedRecomputeStaysQueuedAndIsRetriedInTheBackground() {
+        when(companyRepository.recomputeRevenue(any()))
+                .thenThrow(new QueryTimeoutException("statement timeout"))
+                .thenReturn(1);
+
+        recomputer.enqueue(List.of(7));
+
+        verify(companyRepository, timeout(2_000).times(2)).recomputeRevenue(List.of(7));
+        assertTrue(recomputer.flush());
+        verifyNoMoreInteractions(companyRepository);
+    }
+
+    @Test
+    void flushReportsAFailedRecomputeInsteadOfThrowing() {
+        // Fails for the drain enqueue starts and again for the one flush runs after it.
+        when(companyRepository.recomputeRevenue(any()))
+                .thenThrow(new QueryTimeoutException("statement timeout"))
+                .thenThrow(new QueryTimeoutException("statement timeout"))
+                .thenReturn(1);
+        recomputer.enqueue(List.of(7));
+
+        assertFalse(recomputer.flush());
+        verify(companyRepository, timeout(2_000).times(3)).recomputeRevenue(List.of(7));
+        assertTrue(recomputer.flush());
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.service;
+
+import org.example.IntegrationTest;
+import org.example.dto.TransportDeltaExportResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "transport.export.delta-overlap-ms=60000")
+class TransportDeltaExportTest extends IntegrationTest {
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 10, 10, 0);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void rowCommittedAfterExportWithEarlierStampIsInNextDelta() throws IOException {
+        Integer company = createCompany("Delta Co");
+        Integer client = createClient(company);
+        Integer exported = createTransport(company, client, "Varna", START, "10.00");
+        String file = dir.resolve("delta.txt").toString();
+
+        TransportDeltaExportResult first = transportService.exportChangedTransportsToFile(company, file);
+        assertNull(first.since());
+        LocalDateTime watermark = first.watermark();
+
+        // A transaction stamped updated_at just before the watermark was read but committed after the export.
+        Integer late = createTransport(company, client, "Varna", START, "10.00");
+        setUpdatedAt(late, watermark.minusSeconds(1));
+        // Stamped before the overlap window: already covered by the previous export.
+        Integer old = createTransport(company, client, "Varna", START, "10.00");
+        setUpdatedAt(old, watermark.minusMinutes(5));
+
+        TransportDeltaExportResult delta = transportService.exportChangedTransportsToFile(company, file);
+
+        assertEquals(watermark, delta.since());
+        assertEquals(watermark, delta.watermark());
+        List<Integer> ids = exportedIds(file);
+        assertTrue(ids.contains(late), ids.toString());
+        assertTrue(ids.contains(exported), "rows in the overlap are repeated: " + ids);
+        assertFalse(ids.contains(old), ids.toString());
+    }
+
+    private void setUpdatedAt(Integer id, LocalDateTime updatedAt) {
+        jdbc.update("update transports set updated_at = ? where id = ?", Timestamp.valueOf(updatedAt), id);
+    }
+
+    private static List<Integer> exportedIds(String file) throws IOException {
+        return Files.readAllLines(Path.of(file)).stream()
+                .skip(1)
+                .map(line -> Integer.valueOf(line.substring(0, line.indexOf('|'))))
+                .toList();
+    }
+}
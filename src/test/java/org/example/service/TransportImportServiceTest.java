@@ -0,0 +1,110 @@
+package org.example.service;
+
+import org.example.IntegrationTest;
+import org.example.dto.TransportImportResult;
+import org.example.model.Vehicle;
+import org.example.util.TransportRejectReason;
+import org.example.util.TransportRowRejects;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.doReturn;
+
+class TransportImportServiceTest extends IntegrationTest {
+    private static final String HEADER = "ID|CompanyID|ClientID|VehicleID|DriverID|StartLocation|EndLocation|StartDate|EndDate|TransportType|CargoDescription|CargoWeight|PassengerCount|Price|IsPaid";
+
+    @Autowired
+    TransportImportService importService;
+    @Autowired
+    VehicleService vehicleService;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void rowsWithUnknownOrForeignReferencesAreRejected() throws Exception {
+        Integer own = createCompany("Own Co");
+        Integer other = createCompany("Other Co");
+        Integer client = createClient(own);
+        Integer foreignClient = createClient(other);
+        Integer foreignVehicle = vehicleService.createVehicle(
+                new Vehicle(null, "IMP-" + other, "TRUCK", "MAN", "TGX", 2020, new BigDecimal("10")), other).getId();
+
+        Path file = dir.resolve("import.txt");
+        Files.write(file, List.of(
+                HEADER,
+                row(own, client, "", "10.00"),
+                row(own, client, "999999", "11.00"),
+                row(own, foreignClient, "", "12.00"),
+                row(own, client, String.valueOf(foreignVehicle), "13.00"),
+                row(999999, client, "", "14.00")));
+
+        TransportImportResult result = importService.importFromFile(file.toString());
+
+        assertEquals(1, result.imported());
+        assertFalse(result.revenuePending());
+        assertEquals(4L, result.rejected().get(TransportRejectReason.INVALID_REFERENCE));
+        assertEquals(1, jdbc.queryForObject("select count(*) from transports where company_id = ?", Integer.class, own));
+        assertEquals(0, new BigDecimal("10.00").compareTo(companyService.getCompanyById(own).getRevenue()));
+
+        List<String> rejected = Files.readAllLines(Path.of(file + TransportRowRejects.FILE_SUFFIX));
+        assertEquals(4, rejected.size());
+        assertTrue(rejected.get(0).contains("Vehicle with ID 999999 does not exist"), rejected.get(0));
+        assertTrue(rejected.get(1).contains("belongs to company " + other), rejected.get(1));
+        assertTrue(rejected.get(2).startsWith("INVALID_REFERENCE\tVehicle with ID " + foreignVehicle), rejected.get(2));
+        assertTrue(rejected.get(3).contains("Company with ID 999999 does not exist"), rejected.get(3));
+    }
+
+    @Test
+    void rowMatchingSeveralTransportsByImportKeyIsRejected() throws Exception {
+        Integer company = createCompany("Dup Co");
+        Integer client = createClient(company);
+        Path seed = dir.resolve("seed.txt");
+        Files.write(seed, List.of(HEADER, row(company, client, "", "20.00"), row(company, client, "", "21.00")));
+        importService.importFromFile(seed.toString());
+
+        // A partitioned table only enforces (import_key, start_date); simulate two months holding the same key.
+        jdbc.execute("alter table transports drop constraint ux_transports_import_key");
+        try {
+            jdbc.update("update transports set import_key = 'id:424242' where company_id = ?", company);
+            Path file = dir.resolve("reimport.txt");
+            Files.write(file, List.of(HEADER, "424242" + row(company, client, "", "30.00")));
+
+            TransportImportResult result = importService.importFromFile(file.toString());
+
+            assertEquals(0, result.imported());
+            assertEquals(1L, result.rejected().get(TransportRejectReason.DUPLICATE_IMPORT_KEY));
+            assertEquals(0, jdbc.queryForObject("select count(*) from transports where company_id = ? and price = 30",
+                    Integer.class, company));
+        } finally {
+            jdbc.update("delete from transports where import_key = 'id:424242'");
+            jdbc.execute("alter table transports add constraint ux_transports_import_key unique (import_key)");
+        }
+    }
+
+    @Test
+    void importWhoseRevenueRecomputeIsBehindReportsItPending() throws Exception {
+        Integer company = createCompany("Pending Co");
+        Integer client = createClient(company);
+        Path file = dir.resolve("pending.txt");
+        Files.write(file, List.of(HEADER, row(company, client, "", "15.00")));
+        doReturn(false).when(revenueRecomputer).flush();
+
+        TransportImportResult result = importService.importFromFile(file.toString());
+
+        assertEquals(1, result.imported());
+        assertTrue(result.revenuePending());
+    }
+
+    private static String row(Integer companyId, Integer clientId, String vehicleId, String price) {
+        return "|" + companyId + "|" + clientId + "|" + vehicleId + "||Sofia|Varna|2026-01-" + price.substring(0, 2)
+                + " 10:00:00||CARGO|Pallets|1.5||" + price + "|false";
+    }
+}
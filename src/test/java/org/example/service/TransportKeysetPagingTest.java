@@ -0,0 +1,81 @@
+package org.example.service;
+
+import org.example.IntegrationTest;
+import org.example.dto.DestinationCursor;
+import org.example.dto.KeysetPage;
+import org.example.dto.StartDateCursor;
+import org.example.model.Transport;
+import org.example.repository.TransportRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransportKeysetPagingTest extends IntegrationTest {
+    private static final LocalDateTime DAY = LocalDateTime.of(2026, 3, 1, 9, 0);
+
+    @Autowired
+    TransportRepository transportRepository;
+
+    @Test
+    void companyPagesFollowStartDateThenIdWithTies() {
+        Integer company = createCompany("Keyset Co");
+        Integer client = createClient(company);
+        // Three rows share each start date, so page boundaries fall inside the ties.
+        for (int i = 0; i < 9; i++) {
+            createTransport(company, client, "Varna", DAY.plusDays(i / 3), "10.00");
+        }
+
+        List<Transport> paged = new ArrayList<>();
+        StartDateCursor after = null;
+        do {
+            KeysetPage<Transport, StartDateCursor> page = transportService.getTransportPageByCompanyId(company, after, 2);
+            paged.addAll(page.items());
+            after = page.next();
+        } while (after != null);
+
+        List<Transport> expected = transportRepository.findAll().stream()
+                .filter(t -> t.getCompany().getId().equals(company))
+                .sorted(Comparator.comparing(Transport::getStartDate).thenComparing(Transport::getId).reversed())
+                .toList();
+        assertEquals(9, paged.size());
+        assertEquals(ids(expected), ids(paged));
+    }
+
+    @Test
+    void destinationPagesFollowDestinationStartDateAndIdWithTies() {
+        Integer company = createCompany("Route Co");
+        Integer client = createClient(company);
+        for (int i = 0; i < 12; i++) {
+            createTransport(company, client, i % 2 == 0 ? "Keyset Burgas" : "Keyset Ruse", DAY.plusDays(i % 3), "10.00");
+        }
+
+        List<Transport> paged = new ArrayList<>();
+        DestinationCursor after = null;
+        do {
+            KeysetPage<Transport, DestinationCursor> page = transportService.getTransportPageSortedByDestination(after, 5);
+            paged.addAll(page.items());
+            after = page.next();
+        } while (after != null);
+
+        // Other tests share the table; compare the order of this test's rows within the full walk.
+        List<Transport> ours = paged.stream().filter(t -> t.getCompany().getId().equals(company)).toList();
+        List<Transport> expected = transportRepository.findAll().stream()
+                .filter(t -> t.getCompany().getId().equals(company))
+                .sorted(Comparator.comparing(Transport::getEndLocation)
+                        .thenComparing(Transport::getStartDate, Comparator.reverseOrder())
+                        .thenComparing(Transport::getId))
+                .toList();
+        assertEquals(12, ours.size());
+        assertEquals(ids(expected), ids(ours));
+    }
+
+    private static List<Integer> ids(List<Transport> transports) {
+        return transports.stream().map(Transport::getId).toList();
+    }
+}
@@ -0,0 +1,188 @@
+package org.example.service;
+
+import org.example.IntegrationTest;
+import org.example.dto.CompanyUpsertDto;
+import org.example.dto.TransportUpsertDto;
+import org.example.model.Transport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransportRevenueConcurrencyTest extends IntegrationTest {
+    private static final int THREADS = 8;
+    private static final int UPDATES_PER_THREAD = 40;
+
+    @Autowired
+    TransactionRetry transactionRetry;
+    @Autowired
+    CompanyRevenueLocks revenueLocks;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Value("${transport.write.lock-timeout-ms:5000}")
+    long lockTimeoutMillis;
+
+    @Test
+    void parallelUpdatesKeepRevenueEqualToSumOfPrices() throws Exception {
+        Integer companyId = createCompany("Racing Co");
+        Integer clientId = createClient(companyId);
+        List<Integer> transportIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            transportIds.add(transportService.createTransportDto(transport(null, companyId, clientId, "10.00")).id());
+        }
+
+        AtomicInteger applied = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        List<Throwable> unexpected = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Random random = new Random(t);
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < UPDATES_PER_THREAD; i++) {
+                    Transport transport = transportService.getTransportById(transportIds.get(random.nextInt(transportIds.size())));
+                    transport.setPrice(new BigDecimal(1 + random.nextInt(500) + ".25"));
+                    try {
+                        transportService.updateTransport(transport, companyId, clientId, null, null);
+                        applied.incrementAndGet();
+                    } catch (OptimisticLockingFailureException e) {
+                        // Another thread updated the row after it was read: the stale write must be refused, not merged
+                        conflicts.incrementAndGet();
+                    } catch (Throwable e) {
+                        synchronized (unexpected) {
+                            unexpected.add(e);
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+        assertTrue(revenueRecomputer.flush());
+
+        assertTrue(unexpected.isEmpty(), () -> "Unexpected failures: " + unexpected);
+        assertEquals(THREADS * UPDATES_PER_THREAD, applied.get() + conflicts.get());
+        assertTrue(applied.get() > 0);
+
+        BigDecimal sum = jdbc.queryForObject("select coalesce(sum(price), 0) from transports where company_id = ?",
+                BigDecimal.class, companyId);
+        BigDecimal stored = jdbc.queryForObject("select revenue from companies where id = ?", BigDecimal.class, companyId);
+        assertEquals(0, sum.compareTo(stored), "revenue " + stored + " vs SUM(price) " + sum);
+        assertEquals(0, sum.compareTo(companyService.getCompanyById(companyId).getRevenue()));
+    }
+
+    @Test
+    void staleTransportUpdateIsRejected() throws Exception {
+        Integer companyId = createCompany("Stale Co");
+        Integer clientId = createClient(companyId);
+        Integer id = transportService.createTransportDto(transport(null, companyId, clientId, "10.00")).id();
+
+        Transport first = transportService.getTransportById(id);
+        Transport second = transportService.getTransportById(id);
+        first.setPrice(new BigDecimal("20.00"));
+        transportService.updateTransport(first, companyId, clientId, null, null);
+        second.setPrice(new BigDecimal("30.00"));
+
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> transportService.updateTransport(second, companyId, clientId, null, null));
+        assertTrue(revenueRecomputer.flush());
+        assertEquals(0, new BigDecimal("20.00").compareTo(companyService.getCompanyById(companyId).getRevenue()));
+    }
+
+    @Test
+    void writersForDifferentCompaniesDoNotContend() throws Exception {
+        Integer heldId = createCompany("Held Co");
+        Integer freeId = createCompany("Free Co");
+        Integer freeClientId = createClient(freeId);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService holder = Executors.newSingleThreadExecutor();
+        Future<?> holding = holder.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+            revenueLocks.lockForTransaction(List.of(heldId));
+            locked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        try {
+            assertTrue(locked.await(5, TimeUnit.SECONDS));
+            assertTrue(revenueLocks.isTracked(heldId));
+
+            long started = System.nanoTime();
+            Integer transportId = createTransport(freeId, freeClientId, "Varna", LocalDateTime.of(2026, 1, 1, 10, 0), "10.00");
+            Transport transport = transportService.getTransportById(transportId);
+            transport.setPrice(new BigDecimal("15.00"));
+            transportService.updateTransport(transport, freeId, freeClientId, null, null);
+            companyService.updateCompanyDto(new CompanyUpsertDto(freeId, "Free Co renamed", "addr", "1", "free@example.com"));
+            assertTrue(revenueRecomputer.flush());
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+            assertTrue(millis < lockTimeoutMillis / 2, "other company's writes took " + millis + " ms");
+            assertEquals(0, new BigDecimal("15.00").compareTo(companyService.getCompanyById(freeId).getRevenue()));
+        } finally {
+            release.countDown();
+            holding.get();
+            holder.shutdown();
+        }
+        assertFalse(revenueLocks.isTracked(heldId));
+        assertFalse(revenueLocks.isTracked(freeId));
+    }
+
+    @Test
+    void retryRerunsConflictingWorkUpToMaxAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+        String result = transactionRetry.execute(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException(Transport.class, 1);
+            }
+            return "done";
+        });
+        assertEquals("done", result);
+        assertEquals(3, attempts.get());
+
+        AtomicInteger failing = new AtomicInteger();
+        assertThrows(ConcurrencyFailureException.class, () -> transactionRetry.execute(() -> {
+            failing.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException(Transport.class, 1);
+        }));
+        assertEquals(3, failing.get());
+
+        AtomicInteger other = new AtomicInteger();
+        assertThrows(IllegalArgumentException.class, () -> transactionRetry.execute(() -> {
+            other.incrementAndGet();
+            throw new IllegalArgumentException("not a conflict");
+        }));
+        assertEquals(1, other.get());
+    }
+
+    private static TransportUpsertDto transport(Integer id, Integer companyId, Integer clientId, String price) {
+        return new TransportUpsertDto(id, companyId, clientId, null, null, "Sofia", "Varna",
+                LocalDateTime.of(2026, 1, 1, 10, 0), null, "CARGO", "Pallets", new BigDecimal("1.50"), null,
+                new BigDecimal(price), false);
+    }
+}
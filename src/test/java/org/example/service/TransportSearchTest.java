@@ -0,0 +1,36 @@
+package org.example.service;
+
+import org.example.IntegrationTest;
+import org.example.dto.TransportDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransportSearchTest extends IntegrationTest {
+    private static final LocalDateTime START = LocalDateTime.of(2026, 2, 1, 10, 0);
+
+    @Test
+    void wildcardCharactersInSearchTextMatchLiterally() {
+        Integer company = createCompany("Search Co");
+        Integer client = createClient(company);
+        Integer underscore = createTransport(company, client, "Depot A_B", START, "10.00");
+        Integer other = createTransport(company, client, "Depot AxB", START, "10.00");
+        Integer percent = createTransport(company, client, "Gate 100% North", START, "10.00");
+        Integer plain = createTransport(company, client, "Gate 1000 North", START, "10.00");
+        Integer backslash = createTransport(company, client, "Dock C\\D", START, "10.00");
+
+        assertEquals(List.of(underscore), ids(transportService.searchTransportDtosByDestination("a_b", 50)));
+        assertEquals(List.of(percent), ids(transportService.searchTransportDtosByDestination("100%", 50)));
+        assertEquals(List.of(backslash), ids(transportService.searchTransportDtosByDestination("C\\D", 50)));
+        assertEquals(List.of(other), ids(transportService.searchTransportDtosByDestination("Depot AxB", 50)));
+        assertTrue(ids(transportService.searchTransportDtosByDestination("Gate 100", 50)).containsAll(List.of(percent, plain)));
+        assertEquals(List.of(underscore), ids(transportService.searchTransportDtosByRoute("Sofia", "A_B", 50)));
+    }
+
+    private static List<Integer> ids(List<TransportDto> transports) {
+        return transports.stream().map(TransportDto::id).toList();
+    }
+}
@@ -0,0 +1,94 @@
+package org.example.util;
+
+import org.example.dto.TransportDto;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransportSnapshotIOTest {
+
+    @Test
+    void snapshotRoundTripsToEqualTransports() throws IOException {
+        List<TransportDto> transports = new ArrayList<>();
+        // More than one block so the dictionary and delta columns carry across block boundaries.
+        for (int i = 1; i <= TransportSnapshotIO.BLOCK_ROWS + 10; i++) {
+            transports.add(transport(i, new BigDecimal(i + ".25"), i % 3 == 0 ? null : new BigDecimal("1.50")));
+        }
+        transports.add(new TransportDto(null, 1, null, null, null, null, null,
+                null, null, "PASSENGER", null, null, null, null, null));
+
+        List<TransportDto> read = readAll(write(transports));
+
+        assertEquals(transports, read);
+    }
+
+    @Test
+    void moneyReadsBackAtDatabaseScale() throws IOException {
+        List<TransportDto> read = readAll(write(List.of(transport(1, new BigDecimal("10"), new BigDecimal("10.5")))));
+
+        assertEquals(new BigDecimal("10.00"), read.get(0).price());
+        assertEquals(new BigDecimal("10.50"), read.get(0).cargoWeight());
+    }
+
+    @Test
+    void moneyWithMoreDecimalsIsRejected() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> write(List.of(transport(1, new BigDecimal("10.125"), null))));
+        assertTrue(e.getMessage().contains("10.125"), e.getMessage());
+
+        assertDoesNotThrow(() -> write(List.of(transport(1, new BigDecimal("10.1000"), null))));
+    }
+
+    @Test
+    void corruptHeaderIsRejected() throws IOException {
+        byte[] snapshot = write(List.of(transport(1, BigDecimal.TEN, null)));
+
+        byte[] badMagic = snapshot.clone();
+        badMagic[0] = 'X';
+        assertEquals("Not a transport snapshot file", assertThrows(IOException.class, () -> readAll(badMagic)).getMessage());
+
+        byte[] badVersion = snapshot.clone();
+        badVersion[4] = 99;
+        assertEquals("Unsupported transport snapshot version 99",
+                assertThrows(IOException.class, () -> readAll(badVersion)).getMessage());
+
+        assertThrows(EOFException.class, () -> readAll(Arrays.copyOf(snapshot, 3)));
+    }
+
+    @Test
+    void truncatedSnapshotIsRejected() throws IOException {
+        byte[] snapshot = write(List.of(transport(1, BigDecimal.TEN, null), transport(2, BigDecimal.ONE, null)));
+
+        assertThrows(EOFException.class, () -> readAll(Arrays.copyOf(snapshot, snapshot.length / 2)));
+        assertThrows(EOFException.class, () -> readAll(Arrays.copyOf(snapshot, snapshot.length - 1)));
+    }
+
+    private static TransportDto transport(int id, BigDecimal price, BigDecimal cargoWeight) {
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 8, 0).plusMinutes(id * 37L);
+        return new TransportDto(id, 1 + id % 4, 10 + id % 7, id % 5 == 0 ? null : 100 + id % 3, null,
+                "Sofia", "City " + id % 50, start, id % 2 == 0 ? start.plusHours(5) : null,
+                "CARGO", "Pallets", cargoWeight, null, price, id % 2 == 0);
+    }
+
+    private static byte[] write(List<TransportDto> transports) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TransportSnapshotIO.write(transports.iterator(), out);
+        return out.toByteArray();
+    }
+
+    private static List<TransportDto> readAll(byte[] snapshot) throws IOException {
+        List<TransportDto> transports = new ArrayList<>();
+        TransportSnapshotIO.read(new ByteArrayInputStream(snapshot), transports::add);
+        return transports;
+    }
+}